@@ -0,0 +1,136 @@
+package com.alyssalerner.mouseytrap;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/** Decodes the game's images in parallel on a pool of background threads, so that starting the game
+ * doesn't block the surface callback (GamePanel shows a loading frame until isReady()).
+ * Each image is decoded straight to the size it's drawn at (see BitmapDecoder), so it's never decoded at
+ * full size only to be scaled most of the way down again.
+ * Usage:   Set GamePanel.screenWidth and screenHeight, create the loader, call start(), then get the
+ *          images with getImage() once isReady() returns true.
+ */
+public class AssetLoader {
+    private static final String TAG = "AssetLoader";
+
+    private Resources resources;
+    private ExecutorService pool;
+    private HashMap<Integer, Future<Bitmap>> images = new HashMap<>();     // Every image being loaded, by drawable (see Assets)
+    private Future<Bitmap> cheeseIcon;     // The cheese at the size it's drawn next to the score
+    private long startTime;
+
+    public AssetLoader(Resources resources) {
+        this.resources = resources;
+    }
+
+    // Start decoding every image, each one at the size it's drawn at.
+    public void start() {
+        startTime = System.nanoTime();
+        int nThreads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+        pool = Executors.newFixedThreadPool(nThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, TAG);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        // The background fills the height of the screen, and is the only image without transparency
+        images.put(Assets.BACKGROUND, load(Assets.BACKGROUND, 0, GameConstants.BASE_HEIGHT, true));
+        images.put(Assets.PLAYER, load(Assets.PLAYER, 0, GameConstants.PLAYER_HEIGHT, false));
+        images.put(Assets.TRAP, load(Assets.TRAP, 0, GameConstants.TRAP_HEIGHT, false));
+        images.put(Assets.CHEESE, load(Assets.CHEESE, 0, GameConstants.CHEESE_HEIGHT, false));
+        for(int paw : Assets.PAWS)
+            images.put(paw, load(paw, Game.PAW_WIDTH, 0, false));
+
+        // These are sized in pixels already (see Overlay and Timer)
+        cheeseIcon = loadAtPx(Assets.CHEESE, Game.SCORE_TEXT_SIZE, Game.SCORE_TEXT_SIZE);
+        int timerSize = (int)Game.convertToPixelX(Game.TIMER_HEIGHT);
+        images.put(Assets.TIMER, loadAtPx(Assets.TIMER, timerSize, timerSize));
+
+        // The threads finish the images already queued, then stop
+        pool.shutdown();
+    }
+
+    // Determine if every image has been decoded.
+    public boolean isReady() {
+        for(Future<Bitmap> image : images.values()) {
+            if(!image.isDone())
+                return false;
+        }
+        return cheeseIcon.isDone();
+    }
+
+    /* Get a decoded image, waiting for it if it isn't finished yet.
+     * resId: The image's drawable, from Assets.
+     */
+    public Bitmap getImage(int resId) {
+        Future<Bitmap> image = images.get(resId);
+        if(image == null)
+            throw new IllegalArgumentException("Image was never loaded: " + resId);
+        return waitForImage(image);
+    }
+
+    // Get the cheese at the size it's drawn next to the score, waiting for it if it isn't finished yet.
+    public Bitmap getCheeseIcon() {
+        return waitForImage(cheeseIcon);
+    }
+
+    // Get the time in ms from start() until now, eg. once the images are ready.
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startTime) / 1000000;
+    }
+
+    private static Bitmap waitForImage(Future<Bitmap> image) {
+        boolean interrupted = false;
+        try {
+            while(true) {
+                try {
+                    return image.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error decoding image", e.getCause());
+        } finally {
+            if(interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /* Queue an image to be decoded at the size of an object drawn with it.
+     * resId: The image's drawable, from Assets.
+     * baseWidth, baseHeight: The object's size (rel to BASE_WIDTH and BASE_HEIGHT), or 0 for either if it only depends on the other.
+     * opaque: True if the drawable has no transparent pixels.
+     */
+    private Future<Bitmap> load(final int resId, final int baseWidth, final int baseHeight, final boolean opaque) {
+        return pool.submit(new Callable<Bitmap>() {
+            @Override
+            public Bitmap call() {
+                return BitmapDecoder.decodeForBase(resources, resId, baseWidth, baseHeight, opaque);
+            }
+        });
+    }
+
+    /* Queue an image to be decoded at a size in pixels.
+     * resId: The image's drawable, from Assets.
+     */
+    private Future<Bitmap> loadAtPx(final int resId, final int pxWidth, final int pxHeight) {
+        return pool.submit(new Callable<Bitmap>() {
+            @Override
+            public Bitmap call() {
+                return BitmapDecoder.decode(resources, resId, pxWidth, pxHeight, false);
+            }
+        });
+    }
+}
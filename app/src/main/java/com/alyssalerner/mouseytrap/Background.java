@@ -4,18 +4,22 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 
 /** Responsible for the screen's background.
+ * The image is tiled once, when the background is created, into a strip that is at least one tile
+ * wider than the screen.  Since the strip repeats every tile, any offset can then be drawn with a
+ * single blit of the strip, shifted by less than a tile.
  * Created by Alyssa on 2016-03-06.
  */
 public class Background {
 
-    private Bitmap image;    // The full background image, of correct size.
+    private Bitmap strip;    // The background image tiled enough times to cover the screen with a tile to spare.
 
     private int pxHeight;   // Height in pixels of the background image
-    private int pxWidth;    // Width in pixels of the background image
+    private int pxWidth;    // Width in pixels of the background image (one tile of the strip)
 
     private double offset;        // The x coordinate (<= 0) to start the background at.
     private double pxOffset;      // offset in pixels
-    private int repeats;       // Number of times the background needs to be drawn.
+    private double pxOffsetDx;    // Amount pxOffset has moved during the current update, for interpolating the drawing.
+    private double renderInterpolation = 1.0;  // How far (0 to 1) the screen is between the last update and the next one.
 
     /* Create a new background for a level.
      * image: The main image to display in the background.
@@ -24,8 +28,25 @@ public class Background {
 
         this.pxHeight = GamePanel.screenHeight;
         this.pxWidth = (int)(1.0*pxHeight * imageOrig.getWidth() / imageOrig.getHeight());
-        this.image = Bitmap.createScaledBitmap(imageOrig, pxWidth, pxHeight, false);
-        repeats = findRepeats();
+        // Returns imageOrig itself when it was already decoded at this size (see BitmapDecoder)
+        Bitmap image = Bitmap.createScaledBitmap(imageOrig, pxWidth, pxHeight, false);
+        strip = createStrip(image);
+    }
+
+    /* Tile the image into a strip that covers the screen from any offset within a tile.
+     * image: The image, already scaled to its size in pixels.
+     */
+    private Bitmap createStrip(Bitmap image) {
+        int tiles = (GamePanel.screenWidth + pxWidth - 1) / pxWidth + 1;
+        // An opaque background doesn't need an alpha channel, which halves its size
+        Bitmap.Config config = image.hasAlpha()? Bitmap.Config.ARGB_8888 : Bitmap.Config.RGB_565;
+        Bitmap strip = Bitmap.createBitmap(tiles * pxWidth, pxHeight, config);
+
+        Canvas canvas = new Canvas(strip);
+        for(int i = 0; i < tiles; i++) {
+            canvas.drawBitmap(image, i * pxWidth, 0, null);
+        }
+        return strip;
     }
 
     /* Set the background's offset.
@@ -37,35 +58,49 @@ public class Background {
         else this.offset = 0;
 
         pxOffset = Game.convertToPixelX(this.offset);
+        pxOffsetDx = 0;
     }
 
     /* Increment the current offset by the given amount.
      * offsetDx: The amount to increment by (rel to BASE_WIDTH).
      */
     public void offsetBy(double offsetDx) {
+        double dx = pxOffsetDx + Game.convertToPixelX(offsetDx);
         setOffset(offset + offsetDx);
+        pxOffsetDx = dx;
+    }
+
+    // Start a new update, after which any panning will be interpolated when drawn.
+    public void advanceTick() {
+        pxOffsetDx = 0;
     }
 
-    /* Determine the number of times this image must be repeated.
+    /* Set how far along the screen is between the last update and the next one.
+     * interpolation: 0 to draw where the background was before the last update, 1 to draw it where it is now.
      */
-    private int findRepeats() {
-        int repeats = 1;
-        double posOffset = pxOffset + pxWidth;
-        while(posOffset < GamePanel.screenWidth) {
-            repeats++;
-            posOffset += pxWidth;
-        }
-        return repeats;
+    public void setRenderInterpolation(double interpolation) {
+        renderInterpolation = interpolation;
     }
 
-    public void update() {
-        repeats = findRepeats();
+    // Add the background's position to a snapshot to be drawn later.
+    public void addToSnapshot(WorldSnapshot snapshot) {
+        snapshot.setBackground(pxOffset, pxOffsetDx);
     }
 
     public void draw(Canvas canvas) {
-        System.out.println("Background repeats: " + repeats);
-        for(int i = 0; i < repeats; i++) {
-            canvas.drawBitmap(image, (int)pxOffset + (i*pxWidth), 0, null);
-        }
+        // Moving the whole background back by the unfinished part of this update's pan is the same
+        // as interpolating, even when the offset has wrapped around.
+        drawAt(canvas, (int)(pxOffset - (1.0 - renderInterpolation) * pxOffsetDx));
+    }
+
+    /* Draw the background.
+     * drawOffset: The offset in pixels to draw the background at.
+     */
+    public void drawAt(Canvas canvas, int drawOffset) {
+        // The strip repeats every tile, so only the offset within one tile matters
+        int x = drawOffset % pxWidth;
+        if(x > 0)
+            x -= pxWidth;
+        canvas.drawBitmap(strip, x, 0, null);
     }
 }
@@ -0,0 +1,92 @@
+package com.alyssalerner.mouseytrap;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/** Decodes drawables straight to the size they're drawn at, so they never have to be scaled again afterward.
+ * A drawable is subsampled by the largest power of two that keeps it big enough, then scaled the rest of
+ * the way by the decoder itself (through the density fields of BitmapFactory.Options).  This also stops
+ * the decoder from scaling the drawables up for the screen density first, since they're all in drawable/.
+ * Opaque images are decoded as RGB_565, which takes half the memory of ARGB_8888.
+ * Keeps no state, so it's safe to use from several threads at once.
+ */
+public class BitmapDecoder {
+    /* Decode a drawable at the size that an object of the given size is drawn at (see GameObject).
+     * baseWidth, baseHeight: The object's size (rel to BASE_WIDTH and BASE_HEIGHT), or 0 for either to
+     *      follow the drawable's aspect ratio.
+     * opaque: True if the drawable has no transparent pixels, to decode it without an alpha channel.
+     */
+    public static Bitmap decodeForBase(Resources resources, int resId, int baseWidth, int baseHeight, boolean opaque) {
+        BitmapFactory.Options bounds = readBounds(resources, resId);
+        if(baseWidth == 0)
+            baseWidth = Board.getScaledWidth(bounds.outWidth, bounds.outHeight, baseHeight);
+        if(baseHeight == 0)
+            baseHeight = Board.getScaledHeight(bounds.outWidth, bounds.outHeight, baseWidth);
+        return decode(resources, resId, (int)Game.convertToPixelX(baseWidth), (int)Game.convertToPixelY(baseHeight), opaque);
+    }
+
+    /* Decode a drawable to cover the given size in pixels, keeping its aspect ratio.
+     * The result has the given width or height exactly and is at least as big along the other one, so
+     * scaling it to the exact size is free when the screen has the same aspect ratio as BASE_WIDTH x BASE_HEIGHT.
+     * pxWidth, pxHeight: The size the drawable is drawn at.
+     * opaque: True if the drawable has no transparent pixels, to decode it without an alpha channel.
+     */
+    public static Bitmap decode(Resources resources, int resId, int pxWidth, int pxHeight, boolean opaque) {
+        BitmapFactory.Options options = readBounds(resources, resId);
+        int width = options.outWidth;
+        int height = options.outHeight;
+        if(width <= 0 || height <= 0)
+            throw new RuntimeException("Couldn't read the size of resource " + resId);
+
+        // The size that covers pxWidth x pxHeight
+        double scale = Math.max(1.0*pxWidth / width, 1.0*pxHeight / height);
+        int targetWidth = Math.max(1, (int)Math.round(width * scale));
+        int targetHeight = Math.max(1, (int)Math.round(height * scale));
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = getSampleSize(width, height, targetWidth, targetHeight);
+        int sampledHeight = height / options.inSampleSize;
+        if(sampledHeight != targetHeight) {
+            // Scale by targetHeight / sampledHeight while decoding
+            options.inScaled = true;
+            options.inDensity = sampledHeight;
+            options.inTargetDensity = targetHeight;
+        }
+        options.inPreferredConfig = opaque? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        options.inDither = false;
+
+        Bitmap image = BitmapFactory.decodeResource(resources, resId, options);
+        if(image == null)
+            throw new RuntimeException("Couldn't decode resource " + resId);
+
+        // The decoder rounds the sampled size its own way, which can leave it a pixel off
+        if(image.getWidth() != targetWidth || image.getHeight() != targetHeight) {
+            Bitmap scaled = Bitmap.createScaledBitmap(image, targetWidth, targetHeight, true);
+            if(scaled != image)
+                image.recycle();
+            image = scaled;
+        }
+        return image;
+    }
+
+    // Read a drawable's size in its file, without decoding it or scaling it for the screen density.
+    private static BitmapFactory.Options readBounds(Resources resources, int resId) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        options.inScaled = false;
+        BitmapFactory.decodeResource(resources, resId, options);
+        return options;
+    }
+
+    /* Find the largest power of two to divide an image's size by while keeping it at least the given size.
+     * width, height: The image's full size.
+     * pxWidth, pxHeight: The size it's drawn at.
+     */
+    public static int getSampleSize(int width, int height, int pxWidth, int pxHeight) {
+        int sampleSize = 1;
+        while(width / (sampleSize * 2) >= Math.max(pxWidth, 1) && height / (sampleSize * 2) >= Math.max(pxHeight, 1))
+            sampleSize *= 2;
+        return sampleSize;
+    }
+}
@@ -0,0 +1,56 @@
+package com.alyssalerner.mouseytrap;
+
+/** Converts between the rows and columns of the trap grid and base coords (rel to BASE_WIDTH, BASE_HEIGHT).
+ */
+public class Board {
+
+    // Convert a col to its corresponding base pixel.
+    public static double convertColToBaseX(int col) {
+        return GameConstants.SAFE_SPACE_WIDTH + (col * GameConstants.WORKING_BASE_WIDTH / GameConstants.COLS);
+    }
+
+    // Convert a row to its corresponding base pixel.
+    public static double convertRowToBaseY(int row) {
+        return 1.0 * row * GameConstants.BASE_HEIGHT / GameConstants.ROWS;
+    }
+
+    // Convert a base x coord to the col it's in (may be outside of 0 to COLS - 1 in the safe spaces).
+    public static int convertBaseXToCol(double baseX) {
+        return (int)Math.floor((baseX - GameConstants.SAFE_SPACE_WIDTH) / (GameConstants.WORKING_BASE_WIDTH / GameConstants.COLS));
+    }
+
+    // Convert a base y coord to the row it's in (may be outside of 0 to ROWS - 1 off screen).
+    public static int convertBaseYToRow(double baseY) {
+        return (int)Math.floor(baseY * GameConstants.ROWS / GameConstants.BASE_HEIGHT);
+    }
+
+    /* Find the x coord that centers an object in a col.
+     * width: The object's width.
+     */
+    public static double getCenteredX(int col, int width) {
+        return convertColToBaseX(col) + 0.5*((1.0 * GameConstants.WORKING_BASE_WIDTH / GameConstants.COLS) - width);
+    }
+
+    /* Find the y coord that centers an object in a row.
+     * height: The object's height.
+     */
+    public static double getCenteredY(int row, int height) {
+        return convertRowToBaseY(row) + 0.5*((1.0 * GameConstants.BASE_HEIGHT / GameConstants.ROWS) - height);
+    }
+
+    /* Find the width of an image once it's scaled to the given height (see GameObject).
+     * imageWidth, imageHeight: The image's size.
+     * height: The height it will be scaled to.
+     */
+    public static int getScaledWidth(int imageWidth, int imageHeight, int height) {
+        return (int)(1.0*imageWidth * height / imageHeight);
+    }
+
+    /* Find the height of an image once it's scaled to the given width.
+     * imageWidth, imageHeight: The image's size.
+     * width: The width it will be scaled to.
+     */
+    public static int getScaledHeight(int imageWidth, int imageHeight, int width) {
+        return (int)(1.0*imageHeight * width / imageWidth);
+    }
+}
@@ -4,25 +4,45 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 
 import java.util.ArrayList;
-import java.util.Random;
 
 /** A piece of cheese which the player can collect.
+ * Cheese is reused from level to level, the same way as Trap (see obtain() and recycle()).
  * Created by Alyssa on 2016-04-23.
  */
 public class Cheese extends CircularGameObject {
-    Random rand = new Random();
+    private static final ArrayList<Cheese> freeCheeses = new ArrayList<>();     // Cheese not being used by any level
 
     public Cheese(Bitmap image, int height) {
         super(image, height);
     }
 
-    public Cheese(Bitmap image, int height, double xPos, double yPos) {
-        super(image, height);
-        super.placeAt(xPos, yPos);
+    /* Get a cheese placed at the given position, reusing a recycled one if there is one.
+     * Can be called from any thread.
+     */
+    public static Cheese obtain(Bitmap image, int height, double xPos, double yPos) {
+        Cheese cheese = null;
+        synchronized (freeCheeses) {
+            for(int i = freeCheeses.size() - 1; i >= 0 && cheese == null; i--) {
+                Cheese free = freeCheeses.get(i);
+                if(free.getSourceBitmap() == image && free.getHeight() == height)
+                    cheese = freeCheeses.remove(i);
+            }
+        }
+        if(cheese == null)
+            cheese = new Cheese(image, height);
+        cheese.setVisibility(true);
+        cheese.setOffset(0);
+        cheese.placeAt(xPos, yPos);
+        return cheese;
     }
 
-    public Cheese copy() {
-        return new Cheese(this.getBitmap(), this.getHeight(), this.getX(), this.getY());
+    /* Give this cheese back to be reused by obtain().
+     * Req: The cheese must not be used (or drawn) after this.
+     */
+    public void recycle() {
+        synchronized (freeCheeses) {
+            freeCheeses.add(this);
+        }
     }
 
     public void update() {
@@ -32,26 +52,4 @@ public class Cheese extends CircularGameObject {
     public void draw(Canvas canvas) {
         super.draw(canvas);
     }
-
-    /* Place the cheese at a random position without intersecting other objects or the safe spaces.
-     * obstacles: Objects which the cheese should not intersect (will be modified; ensure a copy is passed)
-     */
-    public void placeAtRandomSpot(ArrayList<GameObject> obstacles) {
-        // Increase size of all obstacles so that cheese doesn't go too close to any obstacle
-        for(GameObject obstacle : obstacles) {
-            obstacle.setX(obstacle.getX() - Game.CHEESE_OBS_DIST);
-            obstacle.setY(obstacle.getY() - Game.CHEESE_OBS_DIST);
-
-            obstacle.setWidth(obstacle.getWidth() + (2*Game.CHEESE_OBS_DIST));
-            obstacle.setHeight(obstacle.getHeight() + (2*Game.CHEESE_OBS_DIST));
-        }
-
-        double xPos, yPos;
-        do {
-            xPos = Game.SAFE_SPACE_WIDTH + (rand.nextInt(Game.BASE_WIDTH - Game.PLAYER_HEIGHT - (2*Game.SAFE_SPACE_WIDTH)));
-            yPos = (rand.nextInt(Game.BASE_HEIGHT - Game.PLAYER_HEIGHT));
-            placeAt(xPos, yPos);
-        }
-        while(collidesWithAny(obstacles));
-    }
 }
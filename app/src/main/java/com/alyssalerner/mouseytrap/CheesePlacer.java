@@ -0,0 +1,172 @@
+package com.alyssalerner.mouseytrap;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/** Finds spots for cheese that keep their distance from the traps and other cheese.
+ * Works on plain bounds, as {left, top, right, bottom}, rather than GameObjects.
+ * A spot is chosen uniformly from every spot that's far enough from the obstacles, in a bounded number of
+ * steps: a few random spots are tried first, and if none of them fit, the free spots are found row by row.
+ */
+public class CheesePlacer {
+    private static final int MAX_TRIES = 64;    // Random spots to try before finding the free spots exactly
+
+    /* Find a random spot for a cheese without intersecting other objects or the safe spaces.
+     * obstacles: The bounds of objects which the cheese should not come within CHEESE_OBS_DIST of, as {left, top, right, bottom}.
+     * width, height: The cheese's size.
+     * rand: The random number generator to use.
+     * return: The cheese's position as {x, y}, or null if there's no room for it.
+     */
+    public static int[] placeAtRandomSpot(ArrayList<int[]> obstacles, int width, int height, Random rand) {
+        // Most of the board is usually free, so one of these almost always fits
+        for(int i = 0; i < MAX_TRIES; i++) {
+            int xPos = GameConstants.SAFE_SPACE_WIDTH + rand.nextInt(getXRange());
+            int yPos = rand.nextInt(getYRange());
+            if(!collidesWithAny(xPos, yPos, width, height, obstacles))
+                return new int[] {xPos, yPos};
+        }
+        return placeInFreeSpot(obstacles, width, height, rand);
+    }
+
+    /* Choose one of the free spots, by counting the free spots in every row and then choosing one of them.
+     * Each obstacle blocks one run of spots in a row (the cheese's center has to be inside the obstacle's
+     * bounds grown by CHEESE_OBS_DIST and the cheese's radius, with rounded corners), so the free spots in a
+     * row are what's left over once those runs are taken out.
+     * return the cheese's position as {x, y}, or null if there are no free spots.
+     * Package-private so that tests can check it against every spot.
+     */
+    static int[] placeInFreeSpot(ArrayList<int[]> obstacles, int width, int height, Random rand) {
+        int[] freeInRow = new int[getYRange()];
+        int[] starts = new int[obstacles.size()];     // Scratch for the runs blocked in a row
+        int[] ends = new int[obstacles.size()];
+        int totalFree = 0;
+        for(int yPos = 0; yPos < freeInRow.length; yPos++) {
+            int nRuns = findBlockedRuns(yPos, obstacles, width, height, starts, ends);
+            freeInRow[yPos] = getXRange() - getBlockedLength(nRuns, starts, ends);
+            totalFree += freeInRow[yPos];
+        }
+        if(totalFree == 0)
+            return null;
+
+        // Find the row of the chosen spot, then the spot within it
+        int chosen = rand.nextInt(totalFree);
+        int yPos = 0;
+        while(chosen >= freeInRow[yPos])
+            chosen -= freeInRow[yPos++];
+
+        int nRuns = findBlockedRuns(yPos, obstacles, width, height, starts, ends);
+        int xPos = GameConstants.SAFE_SPACE_WIDTH;    // Start of the free spots not yet counted
+        for(int i = 0; i < nRuns; i++) {
+            if(ends[i] <= xPos)
+                continue;   // Inside an earlier run
+            if(starts[i] > xPos) {
+                int gap = starts[i] - xPos;
+                if(chosen < gap)
+                    break;
+                chosen -= gap;
+            }
+            xPos = ends[i];
+        }
+        return new int[] {xPos + chosen, yPos};
+    }
+
+    /* Find the runs of x positions in a row that each obstacle blocks, clamped to the range of x positions.
+     * starts, ends: Filled with the runs, as [start, end), sorted by start (they may overlap).
+     * return the number of runs.
+     */
+    private static int findBlockedRuns(int yPos, ArrayList<int[]> obstacles, int width, int height, int[] starts, int[] ends) {
+        int xMin = GameConstants.SAFE_SPACE_WIDTH;
+        int xMax = xMin + getXRange();
+        double radius = width / 2.0;
+        double centerY = yPos + height / 2.0;
+        int nRuns = 0;
+
+        for(int i = 0; i < obstacles.size(); i++) {
+            int[] obstacle = obstacles.get(i);
+            double top = obstacle[1] - GameConstants.CHEESE_OBS_DIST;
+            double bottom = obstacle[3] + GameConstants.CHEESE_OBS_DIST;
+            double yDif = centerY - ((centerY < top)? top : (centerY > bottom)? bottom : centerY);
+            if(yDif * yDif >= radius * radius)
+                continue;
+
+            // Estimate the run from the circle, then move its ends to exactly where collidesWith() changes
+            double halfChord = Math.sqrt(radius * radius - yDif * yDif);
+            int first = (int)Math.ceil(obstacle[0] - GameConstants.CHEESE_OBS_DIST - halfChord - radius);
+            int last = (int)Math.floor(obstacle[2] + GameConstants.CHEESE_OBS_DIST + halfChord - radius);
+            if(collidesWith(first - 1, yPos, width, height, obstacle)) {
+                while(collidesWith(first - 1, yPos, width, height, obstacle))
+                    first--;
+            }
+            else {
+                while(first <= last && !collidesWith(first, yPos, width, height, obstacle))
+                    first++;
+            }
+            if(collidesWith(last + 1, yPos, width, height, obstacle)) {
+                while(collidesWith(last + 1, yPos, width, height, obstacle))
+                    last++;
+            }
+            else {
+                while(last >= first && !collidesWith(last, yPos, width, height, obstacle))
+                    last--;
+            }
+
+            int start = Math.max(first, xMin);
+            int end = Math.min(last + 1, xMax);
+            if(start >= end)
+                continue;
+
+            // Insert in order of start (there are only a few runs in a row)
+            int j = nRuns++;
+            for(; j > 0 && starts[j - 1] > start; j--) {
+                starts[j] = starts[j - 1];
+                ends[j] = ends[j - 1];
+            }
+            starts[j] = start;
+            ends[j] = end;
+        }
+        return nRuns;
+    }
+
+    // Get the number of x positions covered by the runs, counting overlaps once.
+    private static int getBlockedLength(int nRuns, int[] starts, int[] ends) {
+        int length = 0;
+        int coveredTo = Integer.MIN_VALUE;
+        for(int i = 0; i < nRuns; i++) {
+            if(ends[i] <= coveredTo)
+                continue;
+            length += ends[i] - Math.max(starts[i], coveredTo);
+            coveredTo = ends[i];
+        }
+        return length;
+    }
+
+    // Number of x positions a cheese can be placed at (between the safe spaces).
+    private static int getXRange() {
+        return GameConstants.BASE_WIDTH - GameConstants.PLAYER_HEIGHT - (2*GameConstants.SAFE_SPACE_WIDTH);
+    }
+
+    // Number of y positions a cheese can be placed at.
+    private static int getYRange() {
+        return GameConstants.BASE_HEIGHT - GameConstants.PLAYER_HEIGHT;
+    }
+
+    /* Determine if a (circular) cheese at the given position comes too close to any of the obstacles.
+     */
+    static boolean collidesWithAny(int xPos, int yPos, int width, int height, ArrayList<int[]> obstacles) {
+        for(int i = 0; i < obstacles.size(); i++) {
+            if(collidesWith(xPos, yPos, width, height, obstacles.get(i)))
+                return true;
+        }
+        return false;
+    }
+
+    /* Determine if a (circular) cheese at the given position comes too close to an obstacle.
+     * The obstacle is grown by CHEESE_OBS_DIST on every side, then tested the same way as
+     * CircularGameObject.collidesWith(GameObject).
+     */
+    private static boolean collidesWith(int xPos, int yPos, int width, int height, int[] obstacle) {
+        return Collision.circleHitsRect(xPos, yPos, xPos + width, yPos + height,
+                obstacle[0] - GameConstants.CHEESE_OBS_DIST, obstacle[1] - GameConstants.CHEESE_OBS_DIST,
+                obstacle[2] + GameConstants.CHEESE_OBS_DIST, obstacle[3] + GameConstants.CHEESE_OBS_DIST);
+    }
+}
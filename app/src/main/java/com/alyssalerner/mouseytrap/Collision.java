@@ -0,0 +1,70 @@
+package com.alyssalerner.mouseytrap;
+
+/** Collision tests on plain coordinates, which never allocate.
+ * Rectangles are given as left, top, right, bottom, where right and bottom are exclusive.
+ */
+public class Collision {
+
+    /* Determine if two rectangles intersect (the same as android.graphics.Rect.intersects).
+     */
+    public static boolean rectsIntersect(double left1, double top1, double right1, double bottom1,
+                                         double left2, double top2, double right2, double bottom2) {
+        return left1 < right2 && left2 < right1 && top1 < bottom2 && top2 < bottom1;
+    }
+
+    /* Determine if two circles intersect.
+     * x1, y1, x2, y2: The positions of the circles.
+     * radius1, radius2: The radii of the circles.
+     */
+    public static boolean circlesIntersect(double x1, double y1, double radius1,
+                                           double x2, double y2, double radius2) {
+        double xDif = x1 - x2;
+        double yDif = y1 - y2;
+        double sumOfRadii = radius1 + radius2;
+        return (xDif * xDif) + (yDif * yDif) < sumOfRadii * sumOfRadii;
+    }
+
+    /* Determine if a circle intersects a rectangle.
+     * Theory: The point in the rectangle closest to the circle's center is found by clamping the center to the
+     * rectangle; they intersect if that point is closer to the center than the radius.
+     * centerX, centerY: The circle's center.
+     * radius: The circle's radius.
+     */
+    public static boolean circleIntersectsRect(double centerX, double centerY, double radius,
+                                               double left, double top, double right, double bottom) {
+        double nearestX = (centerX < left)? left : (centerX > right)? right : centerX;
+        double nearestY = (centerY < top)? top : (centerY > bottom)? bottom : centerY;
+        double xDif = centerX - nearestX;
+        double yDif = centerY - nearestY;
+        return (xDif * xDif) + (yDif * yDif) < radius * radius;
+    }
+
+    /* Determine if a circular object hits a rectangular one, the way CircularGameObject.collidesWith(GameObject)
+     * does: their rectangles must intersect, and then the circle that fills the first one's width must
+     * intersect the second one.
+     * left, top, right, bottom: The circular object's bounds.
+     * otherLeft, otherTop, otherRight, otherBottom: The rectangular object's bounds.
+     */
+    public static boolean circleHitsRect(double left, double top, double right, double bottom,
+                                         double otherLeft, double otherTop, double otherRight, double otherBottom) {
+        return rectsIntersect(left, top, right, bottom, otherLeft, otherTop, otherRight, otherBottom)
+                && circleIntersectsRect((left + right) / 2.0, (top + bottom) / 2.0, (right - left) / 2.0,
+                    otherLeft, otherTop, otherRight, otherBottom);
+    }
+
+    /* Determine if two circular objects hit each other, the way CircularGameObject.collidesWith(CircularGameObject)
+     * does: their bounds must intersect (from their positions rounded down, as in GameObject), and then
+     * circles of half their heights around their positions must intersect.
+     * x1, y1, x2, y2: The objects' positions.
+     * width1, height1, width2, height2: The objects' sizes.
+     */
+    public static boolean circleHitsCircle(double x1, double y1, int width1, int height1,
+                                           double x2, double y2, int width2, int height2) {
+        int left1 = (int)x1;
+        int top1 = (int)y1;
+        int left2 = (int)x2;
+        int top2 = (int)y2;
+        return rectsIntersect(left1, top1, left1 + width1, top1 + height1, left2, top2, left2 + width2, top2 + height2)
+                && circlesIntersect(x1, y1, height1 / 2.0, x2, y2, height2 / 2.0);
+    }
+}
@@ -0,0 +1,190 @@
+package com.alyssalerner.mouseytrap;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/** Keeps histograms of how long each phase of a frame takes, over the most recent frames.
+ * Recording never allocates, so it can be left on while measuring.  Every method that touches the results
+ * is synchronized, so phases can be recorded from any thread while the results are reset or read (the lock
+ * is almost never contended, since the threads only record a few times a frame).
+ * Usage:   Call setEnabled(true), then check getPercentile() or getDroppedFrames(), or exportTo() a file
+ *          to compare against other builds.
+ */
+public class FrameProfiler {
+    /* The phases of a frame which are timed.
+     * SLEEP_JITTER: How much longer the game loop slept than it asked to.
+     * INPUT_LATENCY: The time from a touch event to the start of the update that applies it (one sample per event).
+     * FRAME: The time between the start of one frame and the next.
+     */
+    public enum Phase {BACKGROUND, LEVEL, LOADING_LEVEL, PLAYER, TRANSITIONER, OVERLAY, UPDATE, SLEEP_JITTER, INPUT_LATENCY, FRAME}
+
+    private static final int N_PHASES = Phase.values().length;
+    private static final int N_SAMPLES = 512;       // Number of most recent samples to keep for each phase.
+    private static final int BUCKET_NANOS = 50000;  // Width of each histogram bucket (0.05 ms).
+    private static final int N_BUCKETS = 640;       // Number of histogram buckets; the last holds everything longer.
+
+    private static volatile boolean enabled = Game.PROFILE_FRAMES;
+    private static long[][] samples = new long[N_PHASES][N_SAMPLES];    // Ring buffer of samples for each phase
+    private static int[][] histograms = new int[N_PHASES][N_BUCKETS];   // Number of samples in each bucket for each phase
+    private static int[] nextSample = new int[N_PHASES];   // Index in samples to write the next sample of each phase
+    private static int[] nSamples = new int[N_PHASES];     // Number of samples currently kept for each phase
+    private static int nFrames;         // Number of frames recorded since the last reset
+    private static int nDroppedFrames;  // Number of updates that were never drawn since the last reset
+
+    // Return true if frames are currently being profiled.
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /* Start or stop profiling.  Starting again clears all previous results.
+     * enable: True to start profiling.
+     */
+    public static void setEnabled(boolean enable) {
+        if(enable && !enabled)
+            reset();
+        enabled = enable;
+    }
+
+    // Clear all results.
+    public static synchronized void reset() {
+        for(int i = 0; i < N_PHASES; i++) {
+            for(int j = 0; j < N_BUCKETS; j++)
+                histograms[i][j] = 0;
+            nextSample[i] = 0;
+            nSamples[i] = 0;
+        }
+        nFrames = 0;
+        nDroppedFrames = 0;
+    }
+
+    /* Record how long a phase took.
+     * phase: The phase that was timed.
+     * nanos: How long it took in nanoseconds.
+     */
+    public static synchronized void record(Phase phase, long nanos) {
+        if(!enabled)
+            return;
+
+        int p = phase.ordinal();
+        int[] histogram = histograms[p];
+
+        // Forget the oldest sample once the ring buffer is full
+        if(nSamples[p] == N_SAMPLES)
+            histogram[getBucket(samples[p][nextSample[p]])]--;
+        else
+            nSamples[p]++;
+
+        samples[p][nextSample[p]] = nanos;
+        histogram[getBucket(nanos)]++;
+        nextSample[p] = (nextSample[p] + 1) % N_SAMPLES;
+    }
+
+    // Return the current time to start timing a phase with recordSince(), or 0 if not profiling.
+    public static long startTiming() {
+        return enabled? System.nanoTime() : 0;
+    }
+
+    /* Record the time since startNanos, and return the current time to start timing the next phase.
+     * Does nothing and returns 0 if not profiling.
+     * phase: The phase that was timed.
+     * startNanos: System.nanoTime() at the start of the phase.
+     */
+    public static long recordSince(Phase phase, long startNanos) {
+        if(!enabled)
+            return 0;
+        long now = System.nanoTime();
+        if(startNanos != 0)
+            record(phase, now - startNanos);
+        return now;
+    }
+
+    /* Record the time between the start of one frame and the next.
+     * frameNanos: The time in nanoseconds.
+     * budgetNanos: The time between updates; every full budget past the first means an update was never drawn.
+     */
+    public static synchronized void recordFrame(long frameNanos, long budgetNanos) {
+        if(!enabled)
+            return;
+
+        record(Phase.FRAME, frameNanos);
+        nFrames++;
+        if(frameNanos > budgetNanos)
+            nDroppedFrames += (int)((frameNanos - 1) / budgetNanos);
+    }
+
+    public static synchronized int getNFrames() {
+        return nFrames;
+    }
+
+    public static synchronized int getDroppedFrames() {
+        return nDroppedFrames;
+    }
+
+    /* Get the time in nanoseconds which the given portion of the recent samples of a phase are at or below.
+     * Accurate to within BUCKET_NANOS.
+     * percentile: From 0 to 1 (eg. 0.95 for p95).
+     */
+    public static synchronized long getPercentile(Phase phase, double percentile) {
+        int p = phase.ordinal();
+        if(nSamples[p] == 0)
+            return 0;
+
+        int rank = (int)Math.ceil(percentile * nSamples[p]);
+        if(rank < 1)
+            rank = 1;
+        int count = 0;
+        for(int i = 0; i < N_BUCKETS - 1; i++) {
+            count += histograms[p][i];
+            if(count >= rank)
+                return (long)(i + 1) * BUCKET_NANOS;
+        }
+
+        // Past the last bucket, so use the longest sample
+        long longest = 0;
+        for(int i = 0; i < nSamples[p]; i++)
+            longest = Math.max(longest, samples[p][i]);
+        return longest;
+    }
+
+    /* Write a report of all results to a file, for comparing between builds.
+     * file: The file to write to (will be overwritten).
+     * build: Describes the build that is being profiled.
+     */
+    public static void exportTo(File file, String build) throws IOException {
+        PrintWriter writer = new PrintWriter(new FileWriter(file));
+        try {
+            writer.print(getReport(build));
+        } finally {
+            writer.close();
+        }
+    }
+
+    /* Get a report of all results.
+     * build: Describes the build that is being profiled.
+     */
+    public static synchronized String getReport(String build) {
+        StringBuilder report = new StringBuilder();
+        report.append("FRAME TIMES\n");
+        report.append("Build: ").append(build).append("\n");
+        report.append("Frames: ").append(nFrames).append("\tDropped: ").append(nDroppedFrames).append("\n");
+        report.append(String.format(Locale.US, "%-14s%10s%10s%10s%10s\n", "Phase", "p50 (ms)", "p95 (ms)", "p99 (ms)", "Samples"));
+        for(Phase phase : Phase.values()) {
+            report.append(String.format(Locale.US, "%-14s%10.2f%10.2f%10.2f%10d\n", phase,
+                    getPercentile(phase, 0.5) / 1000000.0,
+                    getPercentile(phase, 0.95) / 1000000.0,
+                    getPercentile(phase, 0.99) / 1000000.0,
+                    nSamples[phase.ordinal()]));
+        }
+        return report.toString();
+    }
+
+    // Find the histogram bucket for a sample.
+    private static int getBucket(long nanos) {
+        if(nanos < 0)
+            return 0;
+        return (int)Math.min(nanos / BUCKET_NANOS, N_BUCKETS - 1);
+    }
+}
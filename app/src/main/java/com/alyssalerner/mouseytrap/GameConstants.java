@@ -0,0 +1,39 @@
+package com.alyssalerner.mouseytrap;
+
+/** The size of the board and the rules of the game, kept apart from Game (an Activity).
+ */
+public final class GameConstants {
+    public static final int BASE_WIDTH = 2560;     // Assumed width of screen before converting
+    public static final int BASE_HEIGHT = 1440;    // Assumed height of screen before
+
+    public static final int ROWS = 6;
+    public static final int COLS = 8;
+
+    // Player variables
+    public static final int PL_LOWEST_SPEED = 2;   // Lowest possible player speed in pixels/update (based on GamePanel.BASE_HEIGHT)
+    public static final int PL_HIGHEST_SPEED = 102;   // Highest possible player speed in pixels/update (based on GamePanel.BASE_HEIGHT)
+    public static final int PL_MAX_SPEED = 100;     // The number to correlate with maximum speed (min is always 0)
+    public static final double PL_SPEED_RATIO = 1.0;   // The horizontal to vertical speed ratio. Eg. if a speed of 10 correlates to 30 pixels/update in the y direction, then a speed of 10 will correlate to 30*SPEED_RATIO pixels/update in the x direction.
+    public static final int PL_START_SPEED_X = 60;
+    public static final int PL_START_SPEED_Y = 60;
+
+    public static final int PLAYER_HEIGHT = BASE_HEIGHT / (ROWS * 2) + 5;
+    public static final int TRAP_HEIGHT = BASE_HEIGHT / (ROWS * 2);
+    public static final int SAFE_SPACE_WIDTH = (BASE_WIDTH - (TRAP_HEIGHT * COLS * 2)) / 2;
+    public static final int SLIDE_THRESHOLD = BASE_WIDTH - SAFE_SPACE_WIDTH + (PLAYER_HEIGHT / 2); // Start sliding when player moves past here
+    public static final int WORKING_BASE_WIDTH = BASE_WIDTH - (SAFE_SPACE_WIDTH * 2);
+    public static final int START_LEVEL = 1;    // Level to start on (for debugging)
+
+    // Cheese values
+    public static final int CHEESE_TIME_VALUE = 150;    // *160*Amount to add to timer when pick up
+    public static final int CHEESE_HEIGHT = PLAYER_HEIGHT + 35;
+    public static final int CHEESE_OBS_DIST = 100;    // Distance a cheese can be from traps and other cheeses
+
+    // Timer values
+    public static final int TOTAL_TIME = 300;  // *300*The total amount of 'time' on the timer (1 = an update)
+    public static final int WARNING_THRESHOLD = TOTAL_TIME / 4;    // Time left before time warning begins
+
+    public static final int PAN_SPEED = 120;   // Speed at which view will pan, in GamePanel.baseWidth / update.
+
+    private GameConstants() {}
+}
@@ -2,9 +2,7 @@ package com.alyssalerner.mouseytrap;
 
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Matrix;
 import android.graphics.Point;
-import android.graphics.Rect;
 import android.util.Log;
 
 import java.util.ArrayList;
@@ -14,18 +12,29 @@ import java.util.ArrayList;
  */
 public abstract class GameObject {
     private static final String TAG = "GameObject";
+    // Number of the current update, see advanceTick().  Only the game thread changes it, but objects are
+    // also created on the LevelLoader's worker, which has to see the current update.
+    private static volatile long tick = 1;
+    private static double renderInterpolation = 1.0;  // How far (0 to 1) the screen is between the last update and the next one.
+
     private Game.Orientation orientation;    // Object's current orientation.
 
     private double xPos, yPos;      // Coordinates of object
     private double pxXPos, pxYPos;  // Coordinates of object in pixels.
     private int width, height;      // Size of object (rel to GamePanel.BASE_HEIGHT, BASE_WIDTH)
     private int pxWidth, pxHeight;  // SIze of object in pixels
+    private int left, top, right, bottom;   // Bounds of object (rel to BASE_WIDTH, BASE_HEIGHT), kept for collision tests
     private double offset;             // x position to draw this object relative to its real coordinates.
     private double pxOffset;           // x offset of this game object in pixels.
     private boolean visible = true; // True to draw this object.
 
+    // Position before the most recent update, so that drawing can be interpolated between updates.
+    private double prevXPos, prevYPos, prevOffset;
+    private long movedTick;     // The update during which this object last moved.
+
+    private Bitmap source;      // Unscaled image that the character was created from.
     private Bitmap image;       // Image that represents the character.
-    private Bitmap[] imagesRotated = new Bitmap[4]; // Contains all rotated versions of the character as [UP, DOWN, LEFT, RIGHT}
+    private Bitmap[] imagesRotated; // Contains all rotated versions of the character as [UP, DOWN, LEFT, RIGHT} (shared, see SpriteCache)
 
 
     /* image: A bitmap of the character, which can be of arbitrary dimensions
@@ -34,21 +43,11 @@ public abstract class GameObject {
      */
     public GameObject(Bitmap image, int height) {
         this.height = height;
-        width = (int)(1.0*image.getWidth() * height / image.getHeight());
+        width = Board.getScaledWidth(image.getWidth(), image.getHeight(), height);
         orientation = Game.Orientation.DOWN;  // DOWN is the expected default orientation of the image
-        this.image = image;
+        this.source = image;
         updateSize();
         updatePxCoords();
-
-        // Pre-fetch all rotated images of object
-        Matrix matrix = new Matrix();
-        imagesRotated[1] = Bitmap.createBitmap(this.image);
-        matrix.postRotate(90);
-        imagesRotated[2] = Bitmap.createBitmap(this.image, 0, 0, pxWidth, pxHeight, matrix, true);
-        matrix.postRotate(90);
-        imagesRotated[0] = Bitmap.createBitmap(this.image, 0, 0, pxWidth, pxHeight, matrix, true);
-        matrix.postRotate(90);
-        imagesRotated[3] = Bitmap.createBitmap(this.image, 0, 0, pxWidth, pxHeight, matrix, true);
     }
 
     public double getX() {
@@ -56,6 +55,7 @@ public abstract class GameObject {
     }
 
     public void setX(double xPos) {
+        savePreviousPosition();
         this.xPos = xPos;
         updatePxCoords();
     }
@@ -68,7 +68,13 @@ public abstract class GameObject {
         return pxYPos;
     }
 
+    // Get the x position in pixels, not including the offset.
+    public double getPxXPos() {
+        return pxXPos;
+    }
+
     public void setY(double yPos) {
+        savePreviousPosition();
         this.yPos = yPos;
         updatePxCoords();
     }
@@ -95,15 +101,18 @@ public abstract class GameObject {
         updateSize();
     }
 
-    // Set the offset of this game object.
+    // Set the offset of this game object (jumps straight there when drawn).
     public void setOffset(double offset) {
         this.offset = offset;
         pxOffset = Game.convertToPixelX(offset);
+        snapToPosition();
     }
 
     // Increment the offset of this game object.
     public void offsetBy(double offsetDx) {
-        setOffset(offset + offsetDx);
+        savePreviousPosition();
+        offset += offsetDx;
+        pxOffset = Game.convertToPixelX(offset);
     }
 
     /* Set the visibility of this game object.
@@ -113,25 +122,115 @@ public abstract class GameObject {
         this.visible = visible;
     }
 
+    public boolean isVisible() {
+        return visible;
+    }
+
     public Game.Orientation getOrientation() {
         return orientation;
     }
 
-    // Place player at the given position on the screen.
+    // Place player at the given position on the screen (jumps straight there when drawn).
     public void placeAt(double xPos, double yPos) {
         this.xPos = xPos;
         this.yPos = yPos;
         updatePxCoords();
+        snapToPosition();
+    }
+
+    // Start a new update, after which any movement will be interpolated when drawn (game thread only).
+    public static void advanceTick() {
+        tick++;
+    }
+
+    // Get the number of the current update.
+    public static long getTick() {
+        return tick;
     }
 
-    public Rect getRectangle() {
-        return new Rect((int)xPos, (int)yPos, (int)xPos + width, (int)yPos + height);
+    public static double getRenderInterpolation() {
+        return renderInterpolation;
+    }
+
+    /* Set how far along the screen is between the last update and the next one.
+     * interpolation: 0 to draw objects where they were before the last update, 1 to draw them where they are now.
+     */
+    public static void setRenderInterpolation(double interpolation) {
+        renderInterpolation = interpolation;
+    }
+
+    // Remember where this object was before it moves during the current update.
+    private void savePreviousPosition() {
+        if(movedTick != tick) {
+            prevXPos = xPos;
+            prevYPos = yPos;
+            prevOffset = offset;
+            movedTick = tick;
+        }
+    }
+
+    // Stop interpolating any movement made during the current update, eg. when the object jumps to a new position.
+    public void snapToPosition() {
+        prevXPos = xPos;
+        prevYPos = yPos;
+        prevOffset = offset;
+        movedTick = tick;
+    }
+
+    // Get the x position in pixels to draw this object at, including its offset.
+    public double getDrawPxX() {
+        return getPxXAt(renderInterpolation);
+    }
+
+    // Get the y position in pixels to draw this object at.
+    public double getDrawPxY() {
+        return getPxYAt(renderInterpolation);
+    }
+
+    /* Get the x position in pixels, including offset, at some point during the current update.
+     * interpolation: 0 for the position before the update, 1 for the position now.
+     */
+    private double getPxXAt(double interpolation) {
+        if(movedTick != tick || interpolation >= 1.0)
+            return pxXPos + pxOffset;
+        double prevX = prevXPos + prevOffset;
+        return Game.convertToPixelX(prevX + interpolation * (xPos + offset - prevX));
+    }
+
+    /* Get the y position in pixels at some point during the current update.
+     * interpolation: 0 for the position before the update, 1 for the position now.
+     */
+    private double getPxYAt(double interpolation) {
+        if(movedTick != tick || interpolation >= 1.0)
+            return pxYPos;
+        return Game.convertToPixelY(prevYPos + interpolation * (yPos - prevYPos));
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    public int getBottom() {
+        return bottom;
     }
 
     public Bitmap getBitmap() {
         return image;
     }
 
+    // Get the unscaled image this object was created from.
+    public Bitmap getSourceBitmap() {
+        return source;
+    }
+
     // Flip the character's bitmap to face the given Orientation.
     public void setOrientation(Game.Orientation orientation) {
         switch(orientation) {
@@ -150,15 +249,15 @@ public abstract class GameObject {
      * The other object.
      */
     public boolean collidesWith(GameObject other) {
-        return Rect.intersects(this.getRectangle(), other.getRectangle());
+        return Collision.rectsIntersect(left, top, right, bottom, other.left, other.top, other.right, other.bottom);
     }
 
     /* Determine if this object collides with any of the objects given
      * others: The other game objects
      */
     public boolean collidesWithAny(ArrayList<GameObject> others) {
-        for(GameObject other : others) {
-            if(this.collidesWith(other)) {
+        for(int i = 0; i < others.size(); i++) {
+            if(this.collidesWith(others.get(i))) {
                 return true;
             }
         }
@@ -174,22 +273,39 @@ public abstract class GameObject {
 
     }
 
+    // Add this object to a snapshot to be drawn later.
+    public void addToSnapshot(WorldSnapshot snapshot) {
+        if(visible)
+            snapshot.addSprite(image, getPxXAt(0), getPxYAt(0), getPxXAt(1), getPxYAt(1));
+    }
+
     // Draw the game object
     public void draw(Canvas canvas) {
         if(visible)
-            canvas.drawBitmap(image, (int)(pxXPos + pxOffset), (int)pxYPos, null);
+            canvas.drawBitmap(image, (int)getDrawPxX(), (int)getDrawPxY(), null);
     }
 
     // Update size of bitmap image to appropriate values.
     private void updateSize() {
         pxWidth = (int)Game.convertToPixelX(width);
         pxHeight = (int)Game.convertToPixelY(height);
-        image = Bitmap.createScaledBitmap(image, pxWidth, pxHeight, false);
+        imagesRotated = SpriteCache.getSprites(source, pxWidth, pxHeight);
+        setOrientation(orientation);
+        updateBounds();
     }
 
     // Update stored pixel coordinates to appropriate values.
     private void updatePxCoords() {
         this.pxXPos = Game.convertToPixelX(xPos);
         this.pxYPos = Game.convertToPixelY(yPos);
+        updateBounds();
+    }
+
+    // Update the stored bounds to the current position and size.
+    private void updateBounds() {
+        left = (int)xPos;
+        top = (int)yPos;
+        right = left + width;
+        bottom = top + height;
     }
 }
@@ -2,14 +2,16 @@ package com.alyssalerner.mouseytrap;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.util.Log;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /** Note: 'width' and 'height' refer throughout this program to the dimensions relative to
  * BASE_WIDTH and BASE_HEIGHT, which will always be scaled to device's actual dimensions.
@@ -23,10 +25,15 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback {
 
     private Context context;
     private MainThread thread;  // Thread that runs the game loop
+    private SimulationThread simulationThread;  // Thread that updates the game (if Game.SEPARATE_RENDER_THREAD)
+    private RenderThread renderThread;  // Thread that draws the game (if Game.SEPARATE_RENDER_THREAD)
     public static Bitmap trapImage;
     public static Bitmap timerImage;
     public static Bitmap cheeseImage;
+    public static Bitmap cheeseIconImage;   // The cheese at the size it's drawn next to the score
     private static LevelLoader levelLoader;
+    private static AssetLoader assetLoader;     // Decodes the images in the background when the app starts
+    private static volatile boolean initialized = false;    // True once everything has been created from the images
 
     private Overlay overlay;    // Contains information about lives, etc. which are displayed
     private Player player;  // The player controlled by the user
@@ -34,11 +41,19 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback {
     private Level level;    // Current level
     private Level levelBeingLoaded;
     private static boolean transitioning = false;   // True when currently transitioning to a new game.
+    private long ticks;     // Number of updates finished in the current game, numbered the same as Simulation.getTicks()
+    private ReplayRecorder replayRecorder;  // Records the current game's input (if Game.RECORD_REPLAYS)
+
+    // The phases that draw sprites, in the order they're drawn
+    private static final FrameProfiler.Phase[] SPRITE_PHASES = {FrameProfiler.Phase.PLAYER, FrameProfiler.Phase.TRANSITIONER};
+    private LayerCache[] renderLayers = {new LayerCache(), new LayerCache()};   // Level layers drawn by drawSnapshot() (render thread only)
 
     // Normally playerDir0 will be true when player is moving right and false when moving left.
     // If two fingers on screen, playerDir0 will carry value from first finger and playerDir1 will carry second.
+    // Only used by the UI thread, which passes the input on to the game thread through inputQueue.
     private boolean playerDir0;
     private boolean playerDir1;
+    private InputQueue inputQueue = new InputQueue();
 
     public GamePanel(Context context) {
         super(context);
@@ -49,46 +64,74 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback {
 
     @Override
     public void surfaceCreated(SurfaceHolder holder) {
-        if(!gameStarted()) {
-            gameInit();
-            startNewGame();
+        // The game is set up by the game loop once the images are decoded, showing a loading frame until then
+        if(assetLoader == null) {
+            screenWidth = getWidth();
+            screenHeight = getHeight();
+            assetLoader = new AssetLoader(getResources());
+            assetLoader.start();
         }
 
         // Start the game loop
-        thread = new MainThread(getHolder(), this);
-        thread.setRunning(true);
-        thread.start();
+        if(Game.SEPARATE_RENDER_THREAD) {
+            SnapshotBuffer snapshots = new SnapshotBuffer();
+            simulationThread = new SimulationThread(this, snapshots);
+            renderThread = new RenderThread(getHolder(), this, snapshots);
+            simulationThread.setRunning(true);
+            renderThread.setRunning(true);
+            simulationThread.start();
+            renderThread.start();
+        }
+        else {
+            thread = new MainThread(getHolder(), this);
+            thread.setRunning(true);
+            thread.start();
+        }
     }
 
-    // Stuff to do only once when the app starts up
+    /* Stuff to do only once when the app starts up, once the images have been decoded (see AssetLoader).
+     * Runs on the game loop's thread.
+     */
     private void gameInit() {
-        this.screenWidth = getWidth();
-        this.screenHeight = getHeight();
-
-        trapImage = BitmapFactory.decodeResource(getResources(), Game.getResId(Game.trapImage, R.drawable.class));
-        cheeseImage = BitmapFactory.decodeResource(getResources(), Game.getResId(Game.cheeseImage, R.drawable.class));
-        timerImage = BitmapFactory.decodeResource(getResources(), Game.getResId(Game.timerImage, R.drawable.class));
-        background = new Background(BitmapFactory.decodeResource(getResources(), Game.getResId(Game.backgroundImage, R.drawable.class)));
+        trapImage = assetLoader.getImage(Assets.TRAP);
+        cheeseImage = assetLoader.getImage(Assets.CHEESE);
+        cheeseIconImage = assetLoader.getCheeseIcon();
+        timerImage = assetLoader.getImage(Assets.TIMER);
+        background = new Background(assetLoader.getImage(Assets.BACKGROUND));
         levelLoader = new LevelLoader();
         overlay = new Overlay(this, context);
-
-        player = new Player(
-                BitmapFactory.decodeResource(getResources(), Game.getResId(Game.playerImage, R.drawable.class)),
-                Game.PLAYER_HEIGHT
-        );
+        player = new Player(assetLoader.getImage(Assets.PLAYER), GameConstants.PLAYER_HEIGHT);
 
         // Retrieve all the cat paw images
         Bitmap[] catPaws = new Bitmap[Game.N_PAWS];
-        String pawFileName;
-        for(int i = 0; i < Game.N_PAWS; i++) {
-            pawFileName = "cat_paw_" + (i+1);
-            catPaws[i] = BitmapFactory.decodeResource(getResources(), Game.getResId(pawFileName, R.drawable.class));
-        }
+        for(int i = 0; i < Game.N_PAWS; i++)
+            catPaws[i] = assetLoader.getImage(Assets.PAWS[i]);
         LostGameTransitioner.initialize(catPaws);
+        Log.i(TAG, "Ready to play " + assetLoader.getElapsedMillis() + "ms after starting to load");
+    }
+
+    /* Set up the game once the images are ready.
+     * return true if the game is set up.
+     */
+    private boolean initWhenReady() {
+        if(initialized)
+            return true;
+        if(!assetLoader.isReady())
+            return false;
+        gameInit();
+        startNewGame();
+        initialized = true;
+        return true;
+    }
+
+    // Draw the frame shown while the images are loading.
+    private void drawLoadingFrame(Canvas canvas) {
+        canvas.drawColor(Game.LOADING_COLOR);
     }
 
     // Start the game at level 1
     private void startNewGame() {
+        inputQueue.clear();     // Touches made while the last game was ending don't carry over to the new one
         levelLoader.reset();
         levelBeingLoaded = null;
         level = levelLoader.getCurLevel();
@@ -99,11 +142,25 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback {
         player.positionAtStart(true);
         overlay.reset();
         player.setVisibility(true);
+        ticks = 0;
+        if(Game.RECORD_REPLAYS)
+            replayRecorder = new ReplayRecorder(levelLoader.getSeed(), player.getWidth(), levelLoader.getTrapWidth(), levelLoader.getCheeseWidth());
     }
 
 
     @Override
     public void surfaceDestroyed(SurfaceHolder holder) {
+        if(FrameProfiler.isEnabled())
+            exportFrameTimes();
+        if(inputQueue.getNDropped() > 0)
+            Log.w(TAG, inputQueue.getNDropped() + " touch inputs were dropped because the game thread fell behind");
+
+        if(Game.SEPARATE_RENDER_THREAD) {
+            stopThreads();
+            ScoreKeeper.saveHighScore();
+            return;
+        }
+
         boolean retry = true;
         int counter = 0;    // Ensure don't enter an infinite loop
         // Try to destroy the thread until successful (can take a few attempts)
@@ -119,124 +176,258 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback {
         ScoreKeeper.saveHighScore();
     }
 
-    @Override
-    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+    // Save the FrameProfiler's results to a file named by the current time.
+    private void exportFrameTimes() {
+        File dir = context.getExternalFilesDir(null);
+        if(dir == null)
+            dir = context.getFilesDir();
+        File file = new File(dir, "frameTimes_" + System.currentTimeMillis() + ".txt");
+        String build = BuildConfig.VERSION_NAME + " (" + BuildConfig.VERSION_CODE + ", " + BuildConfig.BUILD_TYPE + ") on " + android.os.Build.MODEL;
+        try {
+            FrameProfiler.exportTo(file, build);
+            Log.i(TAG, "Frame times saved to " + file);
+        } catch(IOException e) {
+            Log.e(TAG, "Couldn't save frame times: " + e);
+        }
+    }
+
+    // Save the recording of the game that just ended to a file named by the current time.
+    private void saveReplay() {
+        File dir = context.getExternalFilesDir(null);
+        if(dir == null)
+            dir = context.getFilesDir();
+        File file = new File(dir, "replay_" + System.currentTimeMillis() + ".bin");
+        try {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                replayRecorder.writeTo(out);
+            } finally {
+                out.close();
+            }
+            Log.i(TAG, "Replay of seed " + levelLoader.getSeed() + " saved to " + file);
+        } catch(IOException e) {
+            Log.e(TAG, "Couldn't save replay: " + e);
+        }
+    }
 
+    // Stop the simulation and render threads, waiting until they've finished.
+    private void stopThreads() {
+        renderThread.setRunning(false);
+        simulationThread.setRunning(false);
+        boolean retry = true;
+        int counter = 0;    // Ensure don't enter an infinite loop
+        while(retry && counter < 1000) {
+            counter++;
+            try {
+                renderThread.join();
+                simulationThread.join();
+                retry = false;
+            } catch(InterruptedException e) { e.printStackTrace();}
+        }
+        renderThread = null;
+        simulationThread = null;
     }
 
-    // Determine if game has started
-    private boolean gameStarted() {
-        return (levelLoader != null);
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+
     }
 
     // Return true if player is allowed to move.
     private boolean playerCanMove() {
-        return levelLoader.getLoadingState() == LevelLoader.LoadingState.NONE;
+        return initialized && levelLoader.getLoadingState() == LevelLoader.LoadingState.NONE;
     }
 
+    /* Turn touch events into input for the game thread (see applyInput()).
+     * Runs on the UI thread, so it never touches the player itself.
+     */
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        int action;
-        boolean right;
-        if (playerCanMove()) {
-            action = event.getActionMasked();
-            right = (event.getX(event.getActionIndex()) > screenWidth / 2);
-
-
-            switch (action) {
-                case MotionEvent.ACTION_DOWN:
-                    player.moveInDirection(right, player.getMovingDown());
-                    playerDir0 = right;
-                    break;
-
-                case MotionEvent.ACTION_UP:
-                    player.stopHorizontalMovement();
-                    break;
-
-                case MotionEvent.ACTION_POINTER_DOWN:
-                    player.moveInDirection(right, player.getMovingDown());
-                    playerDir1 = right;
-                    break;
-
-                case MotionEvent.ACTION_POINTER_UP:
-                    playerDir0 = playerDir1;
-                    player.moveInDirection(playerDir0, player.getMovingDown());
-                    break;
-                default:
-                    break;
-            }
+        long time = System.nanoTime();
+        int action = event.getActionMasked();
+        boolean right = (event.getX(event.getActionIndex()) > screenWidth / 2);
+
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                playerDir0 = right;
+                inputQueue.offer(right? Simulation.Input.RIGHT : Simulation.Input.LEFT, time);
+                break;
+
+            case MotionEvent.ACTION_UP:
+                inputQueue.offer(Simulation.Input.STOP, time);
+                break;
+
+            case MotionEvent.ACTION_POINTER_DOWN:
+                playerDir1 = right;
+                inputQueue.offer(right? Simulation.Input.RIGHT : Simulation.Input.LEFT, time);
+                break;
+
+            case MotionEvent.ACTION_POINTER_UP:
+                playerDir0 = playerDir1;
+                inputQueue.offer(playerDir0? Simulation.Input.RIGHT : Simulation.Input.LEFT, time);
+                break;
+            default:
+                break;
         }
 
         return true;
     }
+
+    /* Apply the touch input that arrived since the last update, in order, at the start of an update.
+     * Input that arrives while the player isn't allowed to move is dropped.
+     */
+    private void applyInput() {
+        long now = FrameProfiler.startTiming();
+        Simulation.Input input;
+        while((input = inputQueue.poll()) != null) {
+            if(now != 0)
+                FrameProfiler.record(FrameProfiler.Phase.INPUT_LATENCY, now - inputQueue.getPolledTime());
+            if(!playerCanMove())
+                continue;
+
+            switch(input) {
+                case LEFT:  player.moveInDirection(false, player.getMovingDown());  break;
+                case RIGHT: player.moveInDirection(true, player.getMovingDown());   break;
+                case STOP:  player.stopHorizontalMovement();    break;
+                default:    break;
+            }
+            if(replayRecorder != null)
+                replayRecorder.record(ticks + 1, input);
+        }
+    }
+
     // Check if player has collided with a trap, cheese or the exit and perform appropriate responses.
     private void checkForCollisions() {
         // Check if player hits a trap
-        for(Trap trap : level.getTraps()) {
-            if(player.collidesWith(trap)) {
-                player.positionAtStart(true);
-                player.stopHorizontalMovement();
-            }
+        if(level.findTrapCollision(player) != null) {
+            player.positionAtStart(true);
+            player.stopHorizontalMovement();
         }
 
         // Check if player hits the cheese
-        ArrayList<Cheese> cheeses = level.getCheese();
-        for(Cheese cheese : cheeses) {
-            if(player.collidesWith(cheese)) {
-                overlay.addToTimer(Game.CHEESE_TIME_VALUE);
-                overlay.addToScore(1);
-                level.removeCheese(cheese);
-            }
+        Cheese cheese;
+        while((cheese = level.findCheeseCollision(player)) != null) {
+            overlay.addToTimer(GameConstants.CHEESE_TIME_VALUE);
+            overlay.addToScore(1);
+            level.removeCheese(cheese);
         }
 
         // Once player reaches exit, load next level.
-        if (player.getX() > Game.SLIDE_THRESHOLD) {
+        if (player.getX() > GameConstants.SLIDE_THRESHOLD) {
             levelLoader.loadNextLevel();
             levelBeingLoaded = levelLoader.getNextLevel();
             player.stopHorizontalMovement();
         }
     }
 
+    // Fill a snapshot with everything needed to draw the game as it is now.
+    public void takeSnapshot(WorldSnapshot snapshot) {
+        snapshot.clear();
+        if(!initialized)
+            return;
+        background.addToSnapshot(snapshot);
+        level.addToSnapshot(snapshot);
+        if(levelBeingLoaded != null)
+            levelBeingLoaded.addToSnapshot(snapshot);
+        snapshot.startPhase(FrameProfiler.Phase.PLAYER);
+        player.addToSnapshot(snapshot);
+        snapshot.startPhase(FrameProfiler.Phase.TRANSITIONER);
+        if(transitioning)
+            LostGameTransitioner.addToSnapshot(snapshot);
+        overlay.addToSnapshot(snapshot);
+    }
+
+    /* Draw the game from a snapshot, which may be running on a different thread than the updates.
+     * interpolation: How far the screen is between the snapshot's update and the next one, from 0 to 1.
+     */
+    public void drawSnapshot(Canvas canvas, WorldSnapshot snapshot, double interpolation) {
+        if(!initialized) {
+            drawLoadingFrame(canvas);
+            return;
+        }
+        long time = FrameProfiler.startTiming();
+        background.drawAt(canvas, (int)snapshot.getBackgroundPxOffset(interpolation));
+        time = FrameProfiler.recordSince(FrameProfiler.Phase.BACKGROUND, time);
+
+        for(int i = 0; i < snapshot.getNLevels(); i++) {
+            getRenderLayer(snapshot, i).draw(canvas, snapshot, i, snapshot.getLevelPxOffset(i, interpolation));
+            time = FrameProfiler.recordSince((i == 0)? FrameProfiler.Phase.LEVEL : FrameProfiler.Phase.LOADING_LEVEL, time);
+        }
+
+        for(int p = 0; p < SPRITE_PHASES.length; p++) {
+            int end = (p + 1 < SPRITE_PHASES.length)? snapshot.getPhaseStart(SPRITE_PHASES[p + 1]) : snapshot.getNSprites();
+            for(int i = snapshot.getPhaseStart(SPRITE_PHASES[p]); i < end; i++) {
+                canvas.drawBitmap(snapshot.getImage(i), (int)snapshot.getPxX(i, interpolation), (int)snapshot.getPxY(i, interpolation), null);
+            }
+            time = FrameProfiler.recordSince(SPRITE_PHASES[p], time);
+        }
+
+        overlay.draw(canvas, snapshot.getScore(), snapshot.getHighScore(), snapshot.getTimeLeft());
+        FrameProfiler.recordSince(FrameProfiler.Phase.OVERLAY, time);
+    }
+
+    /* Find the layer to draw a level of a snapshot with: the one that already has the level's layer if there
+     * is one, otherwise one that no other level in the snapshot is using.
+     * level: The level's index in the snapshot.
+     */
+    private LayerCache getRenderLayer(WorldSnapshot snapshot, int level) {
+        long version = snapshot.getLayerVersion(level);
+        for(LayerCache layer : renderLayers) {
+            if(layer.getVersion() == version)
+                return layer;
+        }
+        for(LayerCache layer : renderLayers) {
+            boolean used = false;
+            for(int i = 0; i < snapshot.getNLevels(); i++) {
+                if(i != level && snapshot.getLayerVersion(i) == layer.getVersion())
+                    used = true;
+            }
+            if(!used)
+                return layer;
+        }
+        return renderLayers[0];
+    }
+
+    /* Set how far along the screen is between the last update and the next one, for drawing moving objects.
+     * interpolation: From 0 (just after the last update) to 1 (at the next update).
+     */
+    public void setRenderInterpolation(double interpolation) {
+        if(!initialized)
+            return;
+        GameObject.setRenderInterpolation(interpolation);
+        background.setRenderInterpolation(interpolation);
+    }
+
     public void draw(Canvas canvas) {
-            long time0 = System.nanoTime();
+        if(!initialized) {
+            drawLoadingFrame(canvas);
+            return;
+        }
+        // Time each layer (see FrameProfiler)
+        long time = FrameProfiler.startTiming();
         background.draw(canvas);
-            long time1 = System.nanoTime();
+        time = FrameProfiler.recordSince(FrameProfiler.Phase.BACKGROUND, time);
         level.draw(canvas);
-            long time2 = System.nanoTime();
+        time = FrameProfiler.recordSince(FrameProfiler.Phase.LEVEL, time);
         if(levelBeingLoaded != null)
             levelBeingLoaded.draw(canvas);
-            long time3 = System.nanoTime();
+        time = FrameProfiler.recordSince(FrameProfiler.Phase.LOADING_LEVEL, time);
         player.draw(canvas);
-            long time4 = System.nanoTime();
+        time = FrameProfiler.recordSince(FrameProfiler.Phase.PLAYER, time);
         if(transitioning)
             LostGameTransitioner.draw(canvas);
-            long time5 = System.nanoTime();
+        time = FrameProfiler.recordSince(FrameProfiler.Phase.TRANSITIONER, time);
         overlay.draw(canvas);
-            long time6 = System.nanoTime();
-
-        long drawBg = time1 - time0;
-        long drawLevel = time2 - time1;
-        long drawLoading = time3 - time2;
-        long drawPlayer = time4 - time3;
-        long drawTrans = time5 - time4;
-        long drawOverlay = time6 - time5;
-        long drawTotal = time6 - time0;
-
-        /*
-        Log.i(TAG, "DRAW TIMES:");
-        Log.i(TAG, "\tBackground: " + drawBg + "(" + (int)(100.0*drawBg/drawTotal) + "%");
-        Log.i(TAG, "\tLevel: " + drawLevel + "(" + (int)(100.0*drawLevel/drawTotal) + "%");
-        Log.i(TAG, "\tLevel loader: " + drawLoading + "(" + (int)(100.0*drawLoading/drawTotal) + "%");
-        Log.i(TAG, "\tPlayer: " + drawPlayer + "(" + (int)(100.0*drawPlayer/drawTotal) + "%");
-        Log.i(TAG, "\tTransitioner: " + drawTrans + "(" + (int)(100.0*drawTrans/drawTotal) + "%");
-        Log.i(TAG, "\tOverlay: " + drawOverlay + "(" + (int)(100.0*drawOverlay/drawTotal) + "%");
-        System.out.println();
-        */
-
+        FrameProfiler.recordSince(FrameProfiler.Phase.OVERLAY, time);
     }
 
 
     public void update() {
+        if(!initWhenReady())
+            return;
+        applyInput();
+        GameObject.advanceTick();
+        background.advanceTick();
         if(transitioning) {
             if (LostGameTransitioner.stillTransitioning()) {
                 LostGameTransitioner.update();
@@ -250,6 +441,10 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback {
             LostGameTransitioner.startTransition(player);
             overlay.updateHighScore();
             transitioning = true;
+            if(replayRecorder != null) {
+                replayRecorder.finish(ticks + 1, level.getId(), overlay.getScore());
+                saveReplay();
+            }
         }
 
         // Normal update activity, when not transitioning to new level
@@ -268,9 +463,9 @@ public class GamePanel extends SurfaceView implements SurfaceHolder.Callback {
         if(levelLoader.getLoadingState() == LevelLoader.LoadingState.LOADING)
             levelLoader.update(player, background);
         level.update();
-        background.update();
         player.update();
         overlay.update();
+        ticks++;
     }
 
 }
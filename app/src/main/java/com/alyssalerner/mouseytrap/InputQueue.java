@@ -0,0 +1,66 @@
+package com.alyssalerner.mouseytrap;
+
+/** Hands touch input from the UI thread to the game thread without locking, so that the player is only
+ * ever changed by the game thread.
+ * A fixed-size ring buffer for exactly one producer thread (which calls offer()) and one consumer thread
+ * (which calls poll() and clear()).  Each side only writes its own index, and publishes it with a
+ * volatile write after the slots it has filled or emptied, so neither side ever waits for the other.
+ * Never allocates once created.
+ */
+public class InputQueue {
+    static final int CAPACITY = 64;     // Must be a power of two.  Far more touch events than arrive between two updates.
+    private static final int MASK = CAPACITY - 1;
+
+    private final Simulation.Input[] inputs = new Simulation.Input[CAPACITY];
+    private final long[] times = new long[CAPACITY];    // System.nanoTime() when each input was offered
+    private volatile long head = 0;     // Number of inputs taken, only written by the consumer
+    private volatile long tail = 0;     // Number of inputs offered, only written by the producer
+    private long polledTime;            // Time of the input last returned by poll() (consumer only)
+    private int nDropped = 0;           // Number of inputs offered while the queue was full (producer only)
+
+    /* Add an input to the end of the queue (producer only).
+     * time: System.nanoTime() when the input happened.
+     * return false if the queue was full, in which case the input is dropped.
+     */
+    public boolean offer(Simulation.Input input, long time) {
+        long t = tail;
+        if(t - head == CAPACITY) {
+            nDropped++;
+            return false;
+        }
+        int slot = (int)(t & MASK);
+        inputs[slot] = input;
+        times[slot] = time;
+        tail = t + 1;   // Publishes the slot
+        return true;
+    }
+
+    /* Take the input at the front of the queue (consumer only).
+     * return the input, or null if the queue is empty.  Its time is then given by getPolledTime().
+     */
+    public Simulation.Input poll() {
+        long h = head;
+        if(h == tail)
+            return null;
+        int slot = (int)(h & MASK);
+        Simulation.Input input = inputs[slot];
+        polledTime = times[slot];
+        head = h + 1;   // Gives the slot back to the producer
+        return input;
+    }
+
+    // Get the time the input last returned by poll() was offered at (consumer only).
+    public long getPolledTime() {
+        return polledTime;
+    }
+
+    // Drop every input in the queue (consumer only).
+    public void clear() {
+        head = tail;
+    }
+
+    // Get the number of inputs dropped because the queue was full (producer only).
+    public int getNDropped() {
+        return nDropped;
+    }
+}
@@ -0,0 +1,42 @@
+package com.alyssalerner.mouseytrap;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+/** A level's layer (see Level) as drawn by the RenderThread from snapshots, so that the render thread
+ * never touches the Level itself.  The layer is only redrawn when a snapshot has a different version of it.
+ * Only used by the thread that draws the snapshots.
+ */
+public class LayerCache {
+    private Bitmap layer;       // The traps and cheese drawn at offset 0
+    private int pxLeft;         // The x position in pixels of the layer's left edge (nothing is ever left of the safe space)
+    private long version = -1;  // The version of the layer currently drawn, or -1 for none
+
+    public long getVersion() {
+        return version;
+    }
+
+    /* Draw a level of a snapshot, redrawing the layer first if it has changed.
+     * level: The level's index in the snapshot.
+     * pxOffset: The level's offset in pixels.
+     */
+    public void draw(Canvas canvas, WorldSnapshot snapshot, int level, double pxOffset) {
+        if(snapshot.getLayerVersion(level) != version)
+            redraw(snapshot, level);
+        canvas.drawBitmap(layer, (int)(pxLeft + pxOffset), 0, null);
+    }
+
+    private void redraw(WorldSnapshot snapshot, int level) {
+        if(layer == null) {
+            pxLeft = (int)Game.convertToPixelX(GameConstants.SAFE_SPACE_WIDTH);
+            layer = Bitmap.createBitmap(GamePanel.screenWidth - pxLeft, GamePanel.screenHeight, Bitmap.Config.ARGB_8888);
+        }
+
+        version = snapshot.getLayerVersion(level);
+        layer.eraseColor(Color.TRANSPARENT);
+        Canvas layerCanvas = new Canvas(layer);
+        for(int i = snapshot.getLayerStart(level); i < snapshot.getLayerEnd(level); i++)
+            layerCanvas.drawBitmap(snapshot.getLayerImage(i), snapshot.getLayerPxX(i) - pxLeft, snapshot.getLayerPxY(i), null);
+    }
+}
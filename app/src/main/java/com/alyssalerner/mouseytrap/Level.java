@@ -1,35 +1,60 @@
 package com.alyssalerner.mouseytrap;
 
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /** Characteristics of one level of the game, which is surpassed by moving the mouse all the way to the right.
+ * The traps and cheese never move except when the whole level is offset, so they're drawn once into a
+ * layer bitmap which is then drawn with a single blit.  The layer is only redrawn when cheese is removed.
+ * A level is only used by the thread that updates it; the RenderThread draws a copy of the layer from
+ * each snapshot instead (see addToSnapshot() and LayerCache).
  * Created by Alyssa on 2016-03-24.
  */
 public class Level {
-    private static int nextId = Game.START_LEVEL;  // Next id to assign to a level
+    private static final ArrayList<Bitmap> freeLayers = new ArrayList<>();  // Layer bitmaps not being used by any level
+    private static final AtomicLong nextLayerVersion = new AtomicLong();    // Levels are created on the LevelLoader's worker
 
     private int id; // This level's id
     private ArrayList<Trap> traps = new ArrayList<>();  // Traps in this level
     private ArrayList<Cheese> cheeses;      // Cheese in this level
+    private ArrayList<Cheese> collectedCheeses = new ArrayList<>();  // Cheese removed from this level, given back to the pool once it's released
     private boolean loading;    // True if loading
 
-    public Level(ArrayList<Trap> traps, ArrayList<Cheese> cheeses) {
-        id = nextId++;
+    // Index of which grid cells each trap and cheese is in, so that collision tests only look at nearby objects.
+    // Every object is assumed to be inside the cells its bounds overlap, clamped to the edges of the grid.
+    private long trapMask;      // Bit (row * COLS + col) is set if there's a trap in that cell, the same as LevelLayout
+    private Trap[] trapsByCell; // The traps in order of their cells, so the trap in a cell is at the number of set bits below its bit
+    private long[] cheeseCells = new long[GameConstants.ROWS * GameConstants.COLS];   // For each cell, bit i is set if cheeses.get(i) overlaps it
+
+    private double offset;      // x position to draw this level relative to its real coordinates.
+    private double prevOffset;  // offset before the most recent update, for interpolating the drawing.
+    private long movedTick;     // The update during which this level was last offset.
+
+    private Bitmap layer;       // The traps and cheese drawn at offset 0
+    private double layerPxLeft; // The x position in pixels of the layer's left edge (nothing is ever left of the safe space)
+    private GameObject[] layerObjects;  // The objects to draw into the layer; replaced whenever they change.
+    private boolean layerDirty = true;  // True if the layer needs to be redrawn.
+    private long layerVersion;  // Unique to the layer's current objects, so that a LayerCache knows when to redraw
+    private boolean released = false;   // True once this level is no longer used, see release().
+
+    public Level(int id, ArrayList<Trap> traps, ArrayList<Cheese> cheeses) {
+        this.id = id;
         this.traps = traps;
         this.cheeses = cheeses;
         this.loading = false;
+        indexTraps();
+        indexCheese();
+        updateLayerObjects();
     }
 
     public int getId() {
         return id;
     }
 
-    public void resetIds() {
-        nextId = Game.START_LEVEL;
-    }
-
     public ArrayList<Trap> getTraps() {
         return traps;
     }
@@ -39,36 +64,212 @@ public class Level {
     }
 
     public void removeCheese(Cheese cheese) {
-        cheeses.remove(cheese);
+        if(cheeses.remove(cheese))
+            collectedCheeses.add(cheese);
+        indexCheese();
+        updateLayerObjects();
+    }
+
+    // Record the cell of every trap.
+    private void indexTraps() {
+        for(Trap trap : traps)
+            trapMask |= LevelLayout.getTrapBit(trap.getRow(), trap.getCol());
+
+        trapsByCell = new Trap[traps.size()];
+        for(Trap trap : traps)
+            trapsByCell[getTrapRank(LevelLayout.getTrapBit(trap.getRow(), trap.getCol()))] = trap;
+    }
+
+    // Get the position of a trap in trapsByCell from its bit in trapMask.
+    private int getTrapRank(long bit) {
+        return Long.bitCount(trapMask & (bit - 1));
+    }
+
+    /* Get the cells that have traps, eg. to go through them in order of their set bits.
+     * return a mask with bit (row * COLS + col) set for each cell that has a trap.
+     */
+    public long getTrapMask() {
+        return trapMask;
+    }
+
+    // Record the cells overlapped by every cheese (up to 64 cheeses).
+    private void indexCheese() {
+        for(int i = 0; i < cheeseCells.length; i++)
+            cheeseCells[i] = 0;
+
+        for(int i = 0; i < cheeses.size(); i++) {
+            Cheese cheese = cheeses.get(i);
+            int firstRow = getRow(cheese.getTop());
+            int lastRow = getRow(cheese.getBottom() - 1);
+            int firstCol = getCol(cheese.getLeft());
+            int lastCol = getCol(cheese.getRight() - 1);
+            for(int row = firstRow; row <= lastRow; row++) {
+                for(int col = firstCol; col <= lastCol; col++)
+                    cheeseCells[row * GameConstants.COLS + col] |= 1L << i;
+            }
+        }
+    }
+
+    /* Find a trap that the given object collides with.
+     * Only the traps in the (at most 4 for a player) cells that the object's bounds overlap are tested.
+     * return the trap, or null if there is none.
+     */
+    public Trap findTrapCollision(CircularGameObject object) {
+        int lastRow = getRow(object.getBottom() - 1);
+        int firstCol = getCol(object.getLeft());
+        int lastCol = getCol(object.getRight() - 1);
+        long colMask = (-1L >>> (63 - lastCol)) & (-1L << firstCol);   // Bits firstCol to lastCol
+
+        int firstRow = getRow(object.getTop());
+        long cells = 0;     // Every cell the bounds overlap
+        for(int row = firstRow; row <= lastRow; row++)
+            cells |= colMask << (row * GameConstants.COLS);
+
+        cells &= trapMask;
+        while(cells != 0) {
+            long bit = Long.lowestOneBit(cells);
+            cells &= cells - 1;
+            Trap trap = trapsByCell[getTrapRank(bit)];
+            if(object.collidesWith(trap))
+                return trap;
+        }
+        return null;
+    }
+
+    /* Find a cheese that the given object collides with.
+     * Only the cheese overlapping the cells that the object's bounds overlap are tested.
+     * return the cheese, or null if there is none.
+     */
+    public Cheese findCheeseCollision(CircularGameObject object) {
+        int lastRow = getRow(object.getBottom() - 1);
+        int firstCol = getCol(object.getLeft());
+        int lastCol = getCol(object.getRight() - 1);
+
+        long nearby = 0;
+        for(int row = getRow(object.getTop()); row <= lastRow; row++) {
+            for(int col = firstCol; col <= lastCol; col++)
+                nearby |= cheeseCells[row * GameConstants.COLS + col];
+        }
+
+        while(nearby != 0) {
+            int i = Long.numberOfTrailingZeros(nearby);
+            nearby &= nearby - 1;
+            Cheese cheese = cheeses.get(i);
+            if(object.collidesWith(cheese))
+                return cheese;
+        }
+        return null;
+    }
+
+    // Find the row of a base y coord, clamped to the grid.
+    private static int getRow(int baseY) {
+        return Math.max(0, Math.min(GameConstants.ROWS - 1, Board.convertBaseYToRow(baseY)));
+    }
+
+    // Find the col of a base x coord, clamped to the grid.
+    private static int getCol(int baseX) {
+        return Math.max(0, Math.min(GameConstants.COLS - 1, Board.convertBaseXToCol(baseX)));
     }
 
     public void setLoading(boolean loading) {
         this.loading = loading;
     }
 
-    // Set the offset of all components of this level.
+    // Set the offset of all components of this level (jumps straight there when drawn).
     public void setOffset(double offset) {
-        for(Trap trap : traps) {
-            trap.setOffset(offset);
-        }
-        for(Cheese cheese : cheeses) {
-            if (cheese != null)
-                cheese.setOffset(offset);
-        }
+        this.offset = offset;
+        prevOffset = offset;
+        movedTick = GameObject.getTick();
     }
 
     // Increment the offset of all components of this level.
     public void offsetBy(double offsetDx) {
-        for(Trap trap : traps) {
-            trap.offsetBy(offsetDx);
+        if(movedTick != GameObject.getTick()) {
+            prevOffset = offset;
+            movedTick = GameObject.getTick();
         }
+        offset += offsetDx;
+    }
 
-        for(Cheese cheese : cheeses) {
-            if (cheese != null)
-                cheese.offsetBy(offsetDx);
+    /* Get the offset in pixels at some point during the current update.
+     * interpolation: 0 for the offset before the update, 1 for the offset now.
+     */
+    private double getPxOffsetAt(double interpolation) {
+        if(movedTick != GameObject.getTick())
+            return Game.convertToPixelX(offset);
+        return Game.convertToPixelX(prevOffset + interpolation * (offset - prevOffset));
+    }
+
+    // Copy the list of objects to draw into the layer, and mark the layer to be redrawn.
+    private void updateLayerObjects() {
+        GameObject[] objects = new GameObject[traps.size() + cheeses.size()];
+        int i = 0;
+        for(Trap trap : traps)
+            objects[i++] = trap;
+        for(Cheese cheese : cheeses)
+            objects[i++] = cheese;
+        layerObjects = objects;
+        layerDirty = true;
+        layerVersion = nextLayerVersion.getAndIncrement();
+    }
+
+    /* Stop using this level, so that its layer bitmap, traps and cheese can be reused by another level.
+     * The level won't be drawn after this.
+     */
+    public void release() {
+        if(released)
+            return;
+        released = true;
+        if(layer != null) {
+            synchronized (freeLayers) {
+                freeLayers.add(layer);
+            }
+            layer = null;
+        }
+
+        for(Trap trap : traps)
+            trap.recycle();
+        for(Cheese cheese : cheeses)
+            cheese.recycle();
+        for(Cheese cheese : collectedCheeses)
+            cheese.recycle();
+        traps.clear();
+        cheeses.clear();
+        collectedCheeses.clear();
+    }
+
+    // Draw all the traps and cheese into the layer.
+    private void redrawLayer() {
+        if(layer == null) {
+            synchronized (freeLayers) {
+                if(!freeLayers.isEmpty())
+                    layer = freeLayers.remove(freeLayers.size() - 1);
+            }
+            layerPxLeft = (int)Game.convertToPixelX(GameConstants.SAFE_SPACE_WIDTH);
+            if(layer == null)
+                layer = Bitmap.createBitmap(GamePanel.screenWidth - (int)layerPxLeft, GamePanel.screenHeight, Bitmap.Config.ARGB_8888);
+        }
+
+        layerDirty = false;
+        layer.eraseColor(Color.TRANSPARENT);
+        Canvas layerCanvas = new Canvas(layer);
+        for(GameObject object : layerObjects) {
+            if(object != null && object.isVisible())
+                layerCanvas.drawBitmap(object.getBitmap(), (int)(object.getPxXPos() - layerPxLeft), (int)object.getPxYPos(), null);
         }
     }
 
+    /* Draw the level's layer.
+     * pxOffset: The level's offset in pixels.
+     */
+    public void drawLayer(Canvas canvas, double pxOffset) {
+        if(released)
+            return;
+        if(layerDirty)
+            redrawLayer();
+        canvas.drawBitmap(layer, (int)(layerPxLeft + pxOffset), 0, null);
+    }
+
     public void update() {
         for(Trap trap : traps) {
             trap.update();
@@ -79,14 +280,17 @@ public class Level {
         }
     }
 
-    public void draw(Canvas canvas) {
-        for(Trap trap : traps) {
-            trap.draw(canvas);
-        }
-        for(Cheese cheese : cheeses) {
-            if (cheese != null)
-                cheese.draw(canvas);
+    // Add this level, with a copy of its layer's objects, to a snapshot to be drawn later.
+    public void addToSnapshot(WorldSnapshot snapshot) {
+        snapshot.addLevel(layerVersion, getPxOffsetAt(0), getPxOffsetAt(1));
+        for(GameObject object : layerObjects) {
+            if(object != null && object.isVisible())
+                snapshot.addLayerSprite(object.getBitmap(), (int)object.getPxXPos(), (int)object.getPxYPos());
         }
     }
 
+    public void draw(Canvas canvas) {
+        drawLayer(canvas, getPxOffsetAt(GameObject.getRenderInterpolation()));
+    }
+
 }
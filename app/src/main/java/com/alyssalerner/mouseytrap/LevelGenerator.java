@@ -0,0 +1,99 @@
+package com.alyssalerner.mouseytrap;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/** Decides the layout of each level: where its traps and cheese go.
+ * Doesn't create any game objects or depend on android (LevelLoader turns the layouts into Levels).
+ * Every level is generated from its own random numbers, derived from the seed and the level's id, so
+ * the same seed always gives the same levels, in any order.
+ * Each generator has its own TrapCreator, so use one per thread.
+ */
+public class LevelGenerator {
+    private long seed;          // The seed that all the levels are generated from
+    private int trapWidth;      // Widths of the trap and cheese images once they're scaled to their heights
+    private int cheeseWidth;
+    private TrapCreator trapCreator = new TrapCreator();
+
+    /* seed: The seed to generate all the levels from.
+     * trapWidth: The width of a trap (rel to BASE_WIDTH).
+     * cheeseWidth: The width of a cheese (rel to BASE_WIDTH).
+     */
+    public LevelGenerator(long seed, int trapWidth, int cheeseWidth) {
+        this.seed = seed;
+        this.trapWidth = trapWidth;
+        this.cheeseWidth = cheeseWidth;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getTrapWidth() {
+        return trapWidth;
+    }
+
+    public int getCheeseWidth() {
+        return cheeseWidth;
+    }
+
+    /* Create the layout of the given level.
+     * levelNum: The level to create, starting at 1.
+     */
+    public LevelLayout generate(int levelNum) {
+        Random rand = new Random(mix(seed, levelNum));
+        long trapMask = trapCreator.createTrapMask(levelNum, rand);
+        int nCheeses = getNCheeses(levelNum);
+
+        // The bounds of everything a cheese has to keep away from
+        ArrayList<int[]> obstacles = new ArrayList<>();
+        long traps = trapMask;
+        while(traps != 0) {
+            int cell = Long.numberOfTrailingZeros(traps);
+            traps &= traps - 1;
+            int left = (int)Board.getCenteredX(cell % GameConstants.COLS, trapWidth);
+            int top = (int)Board.getCenteredY(cell / GameConstants.COLS, GameConstants.TRAP_HEIGHT);
+            obstacles.add(new int[] {left, top, left + trapWidth, top + GameConstants.TRAP_HEIGHT});
+        }
+
+        // Add cheeses to this level at random positions.
+        long cheeses = 0;
+        for(int i = 0; i < nCheeses; i++) {
+            int[] spot = CheesePlacer.placeAtRandomSpot(obstacles, cheeseWidth, GameConstants.CHEESE_HEIGHT, rand);
+            if(spot == null)
+                break;  // No room left for another cheese
+            cheeses = LevelLayout.addCheese(cheeses, spot[0], spot[1]);
+            obstacles.add(new int[] {spot[0], spot[1], spot[0] + cheeseWidth, spot[1] + GameConstants.CHEESE_HEIGHT});
+        }
+        return new LevelLayout(levelNum, trapMask, cheeses);
+    }
+
+    /* Get the number of cheeses for this level.
+     * Every 3rd level starting with level 1 (ie. level 1, 4, 7, 10, ...) will have 1 cheese.
+     * Each pair of levels after these numbers (ie. 2 and 3, 5 and 6, ...) will have 2 cheeses distributed between them,
+     * decided by random numbers for the whole group of 3 levels.
+     * levelId: The level's id.
+     */
+    private int getNCheeses(int levelId) {
+        if(levelId % 3 == 1)
+            return 1;
+
+        // The first level of this group of 3.  Negated so its numbers are different from the first level's own.
+        int groupId = levelId - ((levelId + 2) % 3);
+        Random groupRand = new Random(mix(seed, -groupId));
+        int[] nCheeses = new int[2];    // Number of cheeses in the 2nd and 3rd levels of the group
+        nCheeses[groupRand.nextBoolean()? 1 : 0]++;
+        nCheeses[groupRand.nextBoolean()? 1 : 0]++;
+        return (levelId % 3 == 2)? nCheeses[0] : nCheeses[1];
+    }
+
+    /* Combine the seed with a number into a new, well scrambled seed (the finalizer of SplitMix64), so that
+     * nearby numbers don't give related random numbers.
+     */
+    private static long mix(long seed, long value) {
+        long z = seed + (value * 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
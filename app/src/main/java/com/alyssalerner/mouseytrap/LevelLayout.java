@@ -0,0 +1,90 @@
+package com.alyssalerner.mouseytrap;
+
+/** Where everything goes in one level, without any of the game objects (see LevelGenerator).
+ * A layout is just three numbers, so it's cheap to store, compare and regenerate:
+ * trapMask:   Bit (row * COLS + col) is set for each space that has a trap (48 bits for the 6x8 grid).
+ * cheeses:    The number of cheeses in bits 48 and up, then each cheese's position packed into 24 bits
+ *             (x in the high 12, y in the low 12), the first cheese in the lowest bits.
+ */
+public class LevelLayout {
+    public static final int MAX_CHEESES = 2;    // Most cheese a level can have
+    private static final int COORD_BITS = 12;   // Bits for each coord of a cheese (base coords are below 4096)
+    private static final int COORD_MASK = (1 << COORD_BITS) - 1;
+    private static final int CHEESE_BITS = 2 * COORD_BITS;
+    private static final int COUNT_SHIFT = MAX_CHEESES * CHEESE_BITS;
+
+    private final int id;           // The level's id
+    private final long trapMask;
+    private final long cheeses;
+
+    /* id: The level's id.
+     * trapMask: The spaces that have traps, see above.
+     * cheeses: The packed cheese positions, see above.
+     */
+    public LevelLayout(int id, long trapMask, long cheeses) {
+        this.id = id;
+        this.trapMask = trapMask;
+        this.cheeses = cheeses;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getTrapMask() {
+        return trapMask;
+    }
+
+    public long getPackedCheeses() {
+        return cheeses;
+    }
+
+    public boolean hasTrap(int row, int col) {
+        return (trapMask & getTrapBit(row, col)) != 0;
+    }
+
+    public int getNCheeses() {
+        return (int)(cheeses >>> COUNT_SHIFT);
+    }
+
+    public int getCheeseX(int i) {
+        return (int)(cheeses >>> (i * CHEESE_BITS + COORD_BITS)) & COORD_MASK;
+    }
+
+    public int getCheeseY(int i) {
+        return (int)(cheeses >>> (i * CHEESE_BITS)) & COORD_MASK;
+    }
+
+    // Get the bit of a trap mask for the given space.
+    public static long getTrapBit(int row, int col) {
+        return 1L << (row * GameConstants.COLS + col);
+    }
+
+    /* Add a cheese to packed cheese positions.
+     * cheeses: The packed positions so far (0 for none).
+     * xPos, yPos: The cheese's position, which must be from 0 to 4095.
+     * return the packed positions including the new cheese.
+     */
+    public static long addCheese(long cheeses, int xPos, int yPos) {
+        int i = (int)(cheeses >>> COUNT_SHIFT);
+        if(i >= MAX_CHEESES)
+            throw new IllegalStateException("A level can't have more than " + MAX_CHEESES + " cheeses");
+        long cheese = ((long)(xPos & COORD_MASK) << COORD_BITS) | (yPos & COORD_MASK);
+        cheeses &= (1L << COUNT_SHIFT) - 1;
+        return cheeses | (cheese << (i * CHEESE_BITS)) | ((long)(i + 1) << COUNT_SHIFT);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(!(other instanceof LevelLayout))
+            return false;
+        LevelLayout layout = (LevelLayout)other;
+        return id == layout.id && trapMask == layout.trapMask && cheeses == layout.cheeses;
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = trapMask * 31 + cheeses;
+        return (int)(hash ^ (hash >>> 32)) * 31 + id;
+    }
+}
@@ -2,18 +2,44 @@ package com.alyssalerner.mouseytrap;
 
 import android.util.Log;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /** Responsible for loading the next level.
- * Usage:   Call loadNextLevel() to begin loading the next level.  Then, keep calling levelStillLoading()
+ * Usage:   Call reset() to start a game (no levels are generated before then).
+ *          Call loadNextLevel() to begin loading the next level.  Then, keep calling levelStillLoading()
  *          until it returns false.  Once it returns false, getCurLevel() should be called to retrieve
- *          the already-created level that was just loaded.
+ *          the already-created level that was just loaded, and the level before it must no longer be used
+ *          (its objects are given back to the pools at that point).
+ * The next Game.LEVEL_LOOKAHEAD levels are always being generated on a background thread, so that
+ * loading a level only has to hand over one that's already been created.
  * Created by Alyssa on 2016-03-30.
  */
 public class LevelLoader {
     private static final String TAG = "LevelLoader";
-    private Random rand = new Random();
+    private Random seeds = new Random();    // Chooses the seed for each game
+    private LevelGenerator generator;   // Decides where each level's traps and cheese go
+
+    // Generates the upcoming levels in order, one at a time, off the game thread.  Shared by every LevelLoader
+    // (there's one per GamePanel), so a GamePanel that goes away never leaves its own thread behind.
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, TAG);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+    private ArrayDeque<Future<Level>> upcomingLevels = new ArrayDeque<>();  // The levels after nextLevel, in order
+    private int nextLevelToGenerate;    // Id of the level after the last one in upcomingLevels
 
     /* The state of loading that the level loader is currently in.
      * LOADING: Currently in process of loading a level.
@@ -24,23 +50,15 @@ public class LevelLoader {
 
     private Level curLevel;
     private Level nextLevel;
+    private Level finishedLevel;    // The level panned away from, until the main program has switched to curLevel
     private LoadingState loadingState = LoadingState.NONE;
     private double panSpeedPx; // Pan speed in pixels per update
     private double panOffset;  // Current amount that the view has been panned while transitioning to a new level
     private double offsetGoal; // Total offset to pan before a level is done loading
 
-    /* Explanation of how nCheeses works:
-     * Every 3rd level starting with level 1 (ie. level 1, 4, 7, 10, ...) will have 1 cheese.
-     * Each pair of levels after these numbers (ie. 2 and 3, 5 and 6, ...) will have 2 cheeses distributed between them.
-     * The nCheeses array will contain the number of cheeses in these pairs of levels. Eg. From levels 1-3, nCheeses[0]
-     * will contain the number of cheeses in level 2, and nCheeses[1] will contain the number in level 3.
-     */
-    private int[] nCheeses = new int[2];    // Number of cheeses in the next 2 levels
-
     public LevelLoader() {
-        curLevel = retrieveLevel(Game.START_LEVEL);
-        this.offsetGoal = Game.BASE_WIDTH - Game.SAFE_SPACE_WIDTH;
-        panSpeedPx = Game.convertToPixelX(1.0*Game.PAN_SPEED);
+        this.offsetGoal = GameConstants.BASE_WIDTH - GameConstants.SAFE_SPACE_WIDTH;
+        panSpeedPx = Game.convertToPixelX(1.0*GameConstants.PAN_SPEED);
     }
 
 
@@ -48,8 +66,8 @@ public class LevelLoader {
      */
     public void loadNextLevel() {
         loadingState = LoadingState.LOADING;
-        nextLevel = retrieveLevel(curLevel.getId() + 1);
-        nextLevel.setOffset(Game.BASE_WIDTH - Game.SAFE_SPACE_WIDTH);
+        nextLevel = takeUpcomingLevel();
+        nextLevel.setOffset(GameConstants.BASE_WIDTH - GameConstants.SAFE_SPACE_WIDTH);
         nextLevel.setLoading(true);
     }
 
@@ -60,6 +78,7 @@ public class LevelLoader {
     public boolean levelStillLoading() {
         if(loadingState == LoadingState.FINISHED) {
             loadingState = LoadingState.NONE;
+            releaseFinishedLevel();
             return false;
         }
         return true;
@@ -77,68 +96,124 @@ public class LevelLoader {
         return loadingState;
     }
 
-    // Reset to level 1
+    // Reset to level 1, starting a new game with a new seed.
     public void reset() {
-        curLevel.resetIds();
-        curLevel = retrieveLevel(Game.START_LEVEL);
+        if(curLevel != null)
+            curLevel.release();
+        if(nextLevel != null)
+            nextLevel.release();
+        releaseFinishedLevel();
+
+        // Levels that were generated for the last game are dropped (they've never been drawn).  They aren't cancelled,
+        // since one that's already being generated would never give its objects back: each is waited for instead
+        // (the worker is usually done with them already) and its objects are given back to the pools.
+        for(Future<Level> level : upcomingLevels)
+            waitForLevel(level).release();
+        upcomingLevels.clear();
+        startGenerating();
+
+        curLevel = takeUpcomingLevel();
         loadingState = LoadingState.NONE;
         nextLevel = null;
     }
 
-    /* Create the given level.
-     * levelNum: The level to create, starting at 1.
-     */
-    private Level retrieveLevel(int levelNum) {
+    // Give the objects of the level that was panned away from back to the pools, once nothing uses it.
+    private void releaseFinishedLevel() {
+        if(finishedLevel != null) {
+            finishedLevel.release();
+            finishedLevel = null;
+        }
+    }
 
-        ArrayList<Trap> traps = TrapCreator.createTraps(levelNum);
+    // Get the seed that the levels of the current game are generated from.
+    public long getSeed() {
+        return generator.getSeed();
+    }
 
-        int nCheeses = getNCheeses(levelNum);
-        ArrayList<Cheese> cheeses = new ArrayList<>();
+    // Get the width of a trap (rel to BASE_WIDTH) that the levels are generated for.
+    public int getTrapWidth() {
+        return generator.getTrapWidth();
+    }
+
+    // Get the width of a cheese (rel to BASE_WIDTH) that the levels are generated for.
+    public int getCheeseWidth() {
+        return generator.getCheeseWidth();
+    }
+
+    // Start generating levels from START_LEVEL onward, with a new seed.
+    private void startGenerating() {
+        long seed = seeds.nextLong();
+        Log.i(TAG, "Generating levels with seed " + seed);
+        generator = new LevelGenerator(seed,
+                Board.getScaledWidth(GamePanel.trapImage.getWidth(), GamePanel.trapImage.getHeight(), GameConstants.TRAP_HEIGHT),
+                Board.getScaledWidth(GamePanel.cheeseImage.getWidth(), GamePanel.cheeseImage.getHeight(), GameConstants.CHEESE_HEIGHT));
+        nextLevelToGenerate = GameConstants.START_LEVEL;
+        queueUpcomingLevels();
+    }
 
-        // Add cheeses to this level at random positions.
-        for(int i = 0; i < nCheeses; i++) {
-            cheeses.add(getRandomCheese(traps, cheeses));
+    // Queue up levels on the worker until there are LEVEL_LOOKAHEAD of them.
+    private void queueUpcomingLevels() {
+        while(upcomingLevels.size() < Game.LEVEL_LOOKAHEAD) {
+            final LevelGenerator generator = this.generator;
+            final int levelNum = nextLevelToGenerate++;
+            upcomingLevels.add(worker.submit(new Callable<Level>() {
+                @Override
+                public Level call() {
+                    return retrieveLevel(generator, levelNum);
+                }
+            }));
         }
-        return new Level(traps, cheeses);
     }
 
-    /* Get the number of cheeses for this level.
-     * levelId: The level's id.
+    /* Take the first of the upcoming levels and queue up another one.
+     * Only waits if the worker has fallen behind.
      */
-    private int getNCheeses(int levelId) {
-        int curNCheeses = 0;
-        switch (levelId % 3) {
-            case 1:
-                nCheeses[0] = 0;
-                nCheeses[1] = 0;
-                nCheeses[rand.nextBoolean()? 1 : 0]++;
-                nCheeses[rand.nextBoolean()? 1 : 0]++;
-                curNCheeses = 1;
-                break;
-            case 2:
-                curNCheeses = nCheeses[0];
-                break;
-            case 0:
-                curNCheeses = nCheeses[1];
-                break;
-            default: break;
+    private Level takeUpcomingLevel() {
+        Future<Level> future = upcomingLevels.remove();
+        queueUpcomingLevels();
+        return waitForLevel(future);
+    }
+
+    // Get a level from the worker, waiting for it if it isn't finished yet.
+    private static Level waitForLevel(Future<Level> future) {
+        boolean interrupted = false;
+        try {
+            while(true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error generating level", e.getCause());
+        } finally {
+            if(interrupted)
+                Thread.currentThread().interrupt();
         }
-        return curNCheeses;
     }
 
-    /* Return a randomly placed cheese.
-     * traps: The trap obstacles to avoid
-     * cheeses: The cheese obstacles to avoid
+    /* Create the given level (called on the worker).
+     * generator: The generator for the current game.
+     * levelNum: The level to create, starting at 1.
      */
-    private Cheese getRandomCheese(ArrayList<Trap> traps, ArrayList<Cheese> cheeses) {
-        Cheese randCheese = new Cheese(GamePanel.cheeseImage, Game.CHEESE_HEIGHT);
-        ArrayList<GameObject> obstacles = new ArrayList<>();
-        for(Cheese cheese : cheeses)
-            obstacles.add(cheese.copy());
-        for(Trap trap : traps)
-            obstacles.add(trap.copy());
-        randCheese.placeAtRandomSpot(obstacles);
-        return randCheese;
+    private static Level retrieveLevel(LevelGenerator generator, int levelNum) {
+        LevelLayout layout = generator.generate(levelNum);
+
+        // In order of their cells, which is the order Level keeps them in
+        ArrayList<Trap> traps = new ArrayList<>();
+        long trapMask = layout.getTrapMask();
+        while(trapMask != 0) {
+            int cell = Long.numberOfTrailingZeros(trapMask);
+            trapMask &= trapMask - 1;
+            traps.add(Trap.obtain(GamePanel.trapImage, GameConstants.TRAP_HEIGHT, cell / GameConstants.COLS, cell % GameConstants.COLS));
+        }
+
+        ArrayList<Cheese> cheeses = new ArrayList<>();
+        for(int i = 0; i < layout.getNCheeses(); i++) {
+            cheeses.add(Cheese.obtain(GamePanel.cheeseImage, GameConstants.CHEESE_HEIGHT, layout.getCheeseX(i), layout.getCheeseY(i)));
+        }
+        return new Level(levelNum, traps, cheeses);
     }
 
     public void resetOffsets() {
@@ -149,16 +224,18 @@ public class LevelLoader {
     // If loading, Continue panning the view.
     public void update(Player player, Background background) {
         if(loadingState == LoadingState.LOADING) {
-            player.offsetBy(-1*Game.PAN_SPEED);
-            background.offsetBy(-1*Game.PAN_SPEED);
-            curLevel.offsetBy(-1*Game.PAN_SPEED);
-            nextLevel.offsetBy(-1*Game.PAN_SPEED);
+            player.offsetBy(-1*GameConstants.PAN_SPEED);
+            background.offsetBy(-1*GameConstants.PAN_SPEED);
+            curLevel.offsetBy(-1*GameConstants.PAN_SPEED);
+            nextLevel.offsetBy(-1*GameConstants.PAN_SPEED);
 
-            panOffset = (panOffset + Game.PAN_SPEED <= offsetGoal)? (panOffset + Game.PAN_SPEED) : offsetGoal;
+            panOffset = (panOffset + GameConstants.PAN_SPEED <= offsetGoal)? (panOffset + GameConstants.PAN_SPEED) : offsetGoal;
 
             // Detect when finished panning view
             if(panOffset == offsetGoal) {
                 loadingState = LoadingState.FINISHED;
+                // Still the main program's level until it sees FINISHED (see levelStillLoading())
+                finishedLevel = curLevel;
                 curLevel = nextLevel;
                 nextLevel = null;
                 curLevel.setLoading(false);
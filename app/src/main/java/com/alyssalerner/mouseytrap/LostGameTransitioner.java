@@ -13,7 +13,7 @@ public class LostGameTransitioner {
     private static final String TAG = "LostGameTransitioner";
     private enum State {NONE, PAW_ANIMATION, FADING};
     private static Random rand;
-    private static Bitmap[] pawImages;
+    private static Paw[] paws;     // One paw for each image, reused for every lost game
     private static State state;
     private static Paw curPaw;   // Paw being used for this transition.
     private static Player player;
@@ -24,9 +24,11 @@ public class LostGameTransitioner {
      * catPaws: A list of bitmaps of all cat paws coming from the bottom.
      */
     public static void initialize(Bitmap[] catPaws) {
-        pawImages = catPaws;
         pawWidth = Game.PAW_WIDTH;
         pawHeight = (int)(catPaws[0].getHeight() * (1.0*Game.PAW_WIDTH / catPaws[0].getWidth()));
+        paws = new Paw[catPaws.length];
+        for(int i = 0; i < catPaws.length; i++)
+            paws[i] = new Paw(catPaws[i], pawHeight);
         rand = new Random();
         state = null;
     }
@@ -38,13 +40,13 @@ public class LostGameTransitioner {
     public static void startTransition(Player thePlayer) {
         player = thePlayer;
         player.setCanMove(false);
-        int pawIndex = rand.nextInt(pawImages.length);
-        Bitmap pawImage = pawImages[pawIndex];
-        boolean comingFromTop = (thePlayer.getY() < Game.BASE_HEIGHT/2);
+        int pawIndex = rand.nextInt(paws.length);
+        boolean comingFromTop = (thePlayer.getY() < GameConstants.BASE_HEIGHT/2);
         int pawStartX = getPawStartX();
         int pawEndY = getPawEndY(comingFromTop);
 
-        curPaw = new Paw(pawImage, pawHeight, comingFromTop, pawStartX, pawEndY);
+        curPaw = paws[pawIndex];
+        curPaw.reset(comingFromTop, pawStartX, pawEndY);
         state = State.PAW_ANIMATION;
     }
 
@@ -93,6 +95,11 @@ public class LostGameTransitioner {
         }
     }
 
+    public static void addToSnapshot(WorldSnapshot snapshot) {
+        if(curPaw != null)
+            curPaw.addToSnapshot(snapshot);
+    }
+
     public static void draw(Canvas canvas) {
         if(curPaw != null)
             curPaw.draw(canvas);
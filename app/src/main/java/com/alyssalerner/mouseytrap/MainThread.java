@@ -4,16 +4,19 @@ import android.graphics.Canvas;
 import android.util.Log;
 import android.view.SurfaceHolder;
 
-/**
+/** Runs the game loop.  The game is updated exactly Game.FPS times per second no matter how fast
+ * frames can be drawn; each frame is drawn interpolated between the last two updates.
  * Created by Alyssa on 2016-03-06.
  */
 public class MainThread extends Thread {
     private static final String TAG = "MainThread";
+    static final long NANOS_PER_UPDATE = 1000000000L / Game.FPS;   // Time between updates
+    static final long NANOS_PER_FRAME = 1000000000L / Game.MAX_RENDER_FPS;   // Shortest time between frames
+    static final long MAX_FRAME_NANOS = NANOS_PER_UPDATE * Game.MAX_UPDATES_PER_FRAME;  // Most time to catch up on after a slow frame
     private SurfaceHolder surfaceHolder;
     private GamePanel gamePanel;
     private boolean running;    // True when this thread should be running
     private static Canvas canvas;
-    private long targetTime = (int)(1000.0 / Game.FPS);   // Time per loop
 
     public MainThread(SurfaceHolder sh, GamePanel gp) {
         super();
@@ -23,28 +26,36 @@ public class MainThread extends Thread {
 
     @Override
     public void run() {
-        long drawTime = 0;
-        long updateTime = 0;
-        long afterDrawStartTime = 0;
-        long startTime = 0;
+        long accumulator = 0;   // Time that has passed but hasn't been updated for yet.
+        long lastFrameTime = System.nanoTime();
+        long frameStartTime;
         while(running) {
+            frameStartTime = System.nanoTime();
+            long frameTime = frameStartTime - lastFrameTime;
+            lastFrameTime = frameStartTime;
+            FrameProfiler.recordFrame(frameTime, NANOS_PER_UPDATE);
+
+            // If the device falls too far behind, let the game slow down rather than trying to catch up forever
+            accumulator += Math.min(frameTime, MAX_FRAME_NANOS);
             canvas = null;
 
             // Try locking canvas for pixel editing
             try {
                 canvas = this.surfaceHolder.lockCanvas();
 
-                // Each game loop, update and draw the game once.
                 synchronized (surfaceHolder) {
-                    startTime = System.nanoTime();
-                    this.gamePanel.draw(canvas);
-                    afterDrawStartTime = System.nanoTime();
-                    drawTime = (afterDrawStartTime - startTime) / 1000000;
-                    this.gamePanel.update();
-                    updateTime = (System.nanoTime() - afterDrawStartTime) / 1000000;
+                    // Update as many times as needed to catch up, skipping frames on slow devices
+                    while(accumulator >= NANOS_PER_UPDATE) {
+                        long updateStartTime = FrameProfiler.startTiming();
+                        this.gamePanel.update();
+                        FrameProfiler.recordSince(FrameProfiler.Phase.UPDATE, updateStartTime);
+                        accumulator -= NANOS_PER_UPDATE;
+                    }
 
-                    double drawPortion = (1.0*drawTime / (drawTime + updateTime));
-                    double updatePortion = 1.0 - drawPortion;
+                    // Draw the game part way between the last update and the next one
+                    this.gamePanel.setRenderInterpolation(1.0 * accumulator / NANOS_PER_UPDATE);
+                    if(canvas != null)
+                        this.gamePanel.draw(canvas);
                 }
             } catch (Exception e) {
                 Log.e(TAG, "Error in game thread: " + e);
@@ -58,27 +69,15 @@ public class MainThread extends Thread {
                 }
             }
 
-            // Decide how long to wait
-            long timeItTookToDraw = (System.nanoTime() - startTime) / 1000000;
-
-            // DELETE WHEN DONE!
-            /*
-            if(timeItTookToDraw > targetTime) {
-                Log.e(TAG, "Target Time: " + targetTime +
-                        "\nActual Time: " + timeItTookToDraw +
-                        "\nDraw Time:" + drawTime +
-                        "\nUpdate Time: " + updateTime +
-                        "\nOther: " + (timeItTookToDraw - drawTime - updateTime) + "\n\n");
-
-                try{ this.sleep(1000);}catch(Exception e){}
-            }
-            */
-
-            long waitTime = targetTime - timeItTookToDraw;
-            // Wait
-            try {
-                this.sleep(waitTime);
-            } catch (Exception e) {
+            // Don't draw faster than MAX_RENDER_FPS
+            long waitTime = NANOS_PER_FRAME - (System.nanoTime() - frameStartTime);
+            if(waitTime > 0) {
+                long sleepStartTime = System.nanoTime();
+                try {
+                    sleep(waitTime / 1000000, (int)(waitTime % 1000000));
+                } catch (InterruptedException e) {
+                }
+                FrameProfiler.record(FrameProfiler.Phase.SLEEP_JITTER, System.nanoTime() - sleepStartTime - waitTime);
             }
         }
     }
@@ -90,4 +89,4 @@ public class MainThread extends Thread {
     public boolean getRunning() {
         return running;
     }
-}
\ No newline at end of file
+}
@@ -27,8 +27,8 @@ public class Overlay {
         initializeScoreText();
         initializeHighScoreText();
 
-        cheeseImage = Bitmap.createScaledBitmap(GamePanel.cheeseImage, Game.SCORE_TEXT_SIZE, Game.SCORE_TEXT_SIZE, false);
-        cheeseYPos = (int)Game.convertToPixelY(Game.BASE_HEIGHT - scorePosX - cheeseImage.getHeight() - 15);
+        cheeseImage = Bitmap.createScaledBitmap(GamePanel.cheeseIconImage, Game.SCORE_TEXT_SIZE, Game.SCORE_TEXT_SIZE, false);
+        cheeseYPos = (int)Game.convertToPixelY(GameConstants.BASE_HEIGHT - scorePosX - cheeseImage.getHeight() - 15);
 
         ScoreKeeper.initialize(gamePanel, context);
         highScore = ScoreKeeper.getPlayerHighScore();
@@ -53,6 +53,10 @@ public class Overlay {
         timer.addTime(time);
     }
 
+    public int getScore() {
+        return score;
+    }
+
     // Add points to the score.
     public void addToScore(int points) {
         this.score += points;
@@ -71,11 +75,24 @@ public class Overlay {
         return (timer.getTimeLeft() <= 0);
     }
 
+    // Add the overlay's information to a snapshot to be drawn later.
+    public void addToSnapshot(WorldSnapshot snapshot) {
+        snapshot.setOverlay(score, highScore, timer.getTimeLeft());
+    }
+
     public void draw(Canvas canvas) {
+        draw(canvas, score, highScore, timer.getTimeLeft());
+    }
+
+    /* Draw the overlay with the given information, which may be from a snapshot.
+     * score, highScore: The scores to show.
+     * timeLeft: The time to show on the timer.
+     */
+    public void draw(Canvas canvas, int score, int highScore, int timeLeft) {
         // canvas.drawBitmap(cheeseImage, scorePosX, cheeseYPos, null);
         canvas.drawText("" + score, scorePosX, scorePosY, scoreTextPaint);
         canvas.drawText("" + highScore, highScorePosX, highScorePosY, highScoreTextPaint);
-        timer.draw(canvas);
+        timer.draw(canvas, timeLeft);
     }
 
     public void update() {
@@ -91,8 +108,8 @@ public class Overlay {
         scoreTextPaint.setColor(Color.rgb(40, 40, 40));
         scoreTextPaint.setTextSize((float)Game.convertToPixelY(Game.SCORE_TEXT_SIZE));
 
-        cheeseImage = Bitmap.createScaledBitmap(GamePanel.cheeseImage, Game.SCORE_TEXT_SIZE, Game.SCORE_TEXT_SIZE, false);
-        cheeseYPos = (int)Game.convertToPixelY(Game.BASE_HEIGHT - scorePosX - cheeseImage.getHeight() - 15);
+        cheeseImage = Bitmap.createScaledBitmap(GamePanel.cheeseIconImage, Game.SCORE_TEXT_SIZE, Game.SCORE_TEXT_SIZE, false);
+        cheeseYPos = (int)Game.convertToPixelY(GameConstants.BASE_HEIGHT - scorePosX - cheeseImage.getHeight() - 15);
     }
 
     private void initializeHighScoreText() {
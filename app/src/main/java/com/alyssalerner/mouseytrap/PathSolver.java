@@ -0,0 +1,123 @@
+package com.alyssalerner.mouseytrap;
+
+/** Finds the quickest way through a trap layout, following the way the mouse moves: it always moves
+ * vertically, bouncing off the top and bottom walls, and can move one col left or right while it moves
+ * one row (it moves at the same speed in both directions).  The state is (row, col, vertical direction),
+ * where col -1 is the safe space at the start and col COLS is the safe space at the exit.
+ * Each solver keeps its own scratch arrays, so use one per thread.
+ */
+public class PathSolver {
+    public static final int UNSOLVABLE = -1;
+    private static final int ROWS = GameConstants.ROWS;
+    private static final int STATE_COLS = GameConstants.COLS + 2;    // Including both safe spaces
+    private static final int N_STATES = ROWS * STATE_COLS * 2;
+
+    // Updates the mouse takes to move one row at its starting speed.
+    public static final double UPDATES_PER_STEP = (1.0 * GameConstants.BASE_HEIGHT / ROWS)
+            / (GameConstants.PL_START_SPEED_Y * (1.0 * GameConstants.PL_HIGHEST_SPEED - GameConstants.PL_LOWEST_SPEED) / GameConstants.PL_MAX_SPEED);
+
+    private int[] steps = new int[N_STATES];    // Fewest steps to reach each state, or UNSOLVABLE if not reached
+    private int[] queue = new int[N_STATES];
+
+    /* Find the fewest steps to get from the start safe space to the exit safe space.
+     * trapMask: The traps, with bit (row * COLS + col) set for each space that has a trap.
+     * startRow: The row the mouse starts in.
+     * startUp: True if the mouse starts moving up.
+     * return the number of steps (one per row moved), or UNSOLVABLE.
+     */
+    public int solve(long trapMask, int startRow, boolean startUp) {
+        return getSteps(trapMask, startRow, -1, startUp, 0, GameConstants.COLS);
+    }
+
+    /* Find the fewest steps to get from any state to a space.
+     * trapMask: The traps, with bit (row * COLS + col) set for each space that has a trap.
+     * startRow, startCol, startUp: The state to start from (col -1 for the start safe space).
+     * targetRow, targetCol: The space to get to, or targetCol COLS for the exit safe space (in any row).
+     * return the number of steps, or UNSOLVABLE.
+     */
+    public int getSteps(long trapMask, int startRow, int startCol, boolean startUp, int targetRow, int targetCol) {
+        if(isTarget(startRow, startCol, targetRow, targetCol))
+            return 0;
+        for(int i = 0; i < N_STATES; i++)
+            steps[i] = UNSOLVABLE;
+
+        int head = 0;
+        int tail = 0;
+        int start = getState(startRow, startCol, startUp);
+        steps[start] = 0;
+        queue[tail++] = start;
+
+        // Breadth first, so the first time the exit is reached is the quickest
+        while(head < tail) {
+            int state = queue[head++];
+            int up = state & 1;
+            int col = (state >> 1) % STATE_COLS - 1;
+            int row = (state >> 1) / STATE_COLS;
+
+            // Move one row, bouncing off the walls the same way as TrapCreator's paths
+            boolean nextUp = (up == 1);
+            int nextRow = row + (nextUp? -1 : 1);
+            if(nextRow == -1) {
+                nextRow = 1;
+                nextUp = false;
+            }
+            else if(nextRow == ROWS) {
+                nextRow = ROWS - 2;
+                nextUp = true;
+            }
+            if(hasTrap(trapMask, nextRow, col))
+                continue;
+
+            // Then stay in the same col or move one col either way
+            for(int nextCol = col - 1; nextCol <= col + 1; nextCol++) {
+                if(nextCol < -1 || nextCol > GameConstants.COLS || hasTrap(trapMask, nextRow, nextCol))
+                    continue;
+                if(isTarget(nextRow, nextCol, targetRow, targetCol))
+                    return steps[state] + 1;
+                if(nextCol == GameConstants.COLS)
+                    continue;   // The exit isn't the target, and there's no way back from it
+
+                int next = getState(nextRow, nextCol, nextUp);
+                if(steps[next] == UNSOLVABLE) {
+                    steps[next] = steps[state] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return UNSOLVABLE;
+    }
+
+    /* Score how hard a layout is: the fewest steps to get through it, averaged over every row and direction the
+     * mouse could start in (multiply by UPDATES_PER_STEP for the time).
+     * return the average number of steps, or UNSOLVABLE if there's no way through.
+     */
+    public double getDifficulty(long trapMask) {
+        int total = 0;
+        for(int row = 0; row < ROWS; row++) {
+            for(int up = 0; up < 2; up++) {
+                int nSteps = solve(trapMask, row, up == 1);
+                // The start safe space is open, so if there's a way through from one start there's one from all of them
+                if(nSteps == UNSOLVABLE)
+                    return UNSOLVABLE;
+                total += nSteps;
+            }
+        }
+        return 1.0 * total / (ROWS * 2);
+    }
+
+    // Determine if a space is the target (see getSteps()).
+    private static boolean isTarget(int row, int col, int targetRow, int targetCol) {
+        return col == targetCol && (col == GameConstants.COLS || row == targetRow);
+    }
+
+    // Determine if there's a trap in a space (never in the safe spaces).
+    private static boolean hasTrap(long trapMask, int row, int col) {
+        if(col < 0 || col >= GameConstants.COLS)
+            return false;
+        return ((trapMask >>> (row * GameConstants.COLS + col)) & 1) != 0;
+    }
+
+    private static int getState(int row, int col, boolean up) {
+        return ((row * STATE_COLS + col + 1) << 1) | (up? 1 : 0);
+    }
+}
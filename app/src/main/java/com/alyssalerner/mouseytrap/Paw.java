@@ -17,26 +17,28 @@ public class Paw extends GameObject {
     private boolean done = false;       // True when paw has finished extending and retracting.
     private boolean caughtMouse = false;    // Return true if mouse has been caught.
 
-    /* Create a new paw.
+    /* Create a paw, which starts once reset() is called.
+     */
+    public Paw(Bitmap image, int height) {
+        super(image, height);
+        this.pawSpeedPx = Game.convertToPixelY(Game.PAW_SPEED);
+    }
+
+    /* Start the paw's animation over, so the same paw can be used for every lost game.
      * comingFromTop: True if paw will start going downward from the top, false if upward from bottom.
      * starXPos: The x position to start at.
      * endYPos: The y position at which the paw should start retracting.
      */
-    public Paw(Bitmap image, int height, boolean comingFromTop, int startXPos, int endYPos) {
-        super(image, height);
+    public void reset(boolean comingFromTop, int startXPos, int endYPos) {
         this.comingFromTop = comingFromTop;
-        this.pawSpeedPx = Game.convertToPixelY(Game.PAW_SPEED);
-
-        if(comingFromTop)
-            this.setOrientation(Game.Orientation.UP);
-        int startYPos = comingFromTop? -1*(this.getHeight()) : Game.BASE_HEIGHT;
+        this.setOrientation(comingFromTop? Game.Orientation.UP : Game.Orientation.DOWN);
+        int startYPos = comingFromTop? -1*(this.getHeight()) : GameConstants.BASE_HEIGHT;
         super.placeAt(startXPos, startYPos);
 
         this.extending = true;
         this.done = false;
         this.endYPosPx = Game.convertToPixelY(endYPos);
         this.caughtMouse = false;
-
     }
 
     public boolean animationComplete() {
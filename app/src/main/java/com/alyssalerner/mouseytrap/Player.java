@@ -3,47 +3,39 @@ package com.alyssalerner.mouseytrap;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 
-/** The player controlled by the user.
+/** The player controlled by the user.  How it moves is decided by its PlayerBody.
  * Created by Alyssa on 2016-03-06.
  */
 public class Player extends CircularGameObject {
 
-    private double speedX, speedY;           // Speed the player should be at while it is moving (persists even while stopped)
-    private double velocityX, velocityY;     // Velocity that the player is actually moving at this moment
-    private double pxVelocityX, pxVelocityY;   // Velocity in pixels
-    private boolean canMove = true;
-
-    private double startXPos;          // Starting x position for player
-    private double startYPos;          // Starting y position for player
+    private PlayerBody body;
 
     public Player(Bitmap image, int height) {
         super(image, height);
-
-        startXPos = (Game.SAFE_SPACE_WIDTH - getWidth()) / 2.0;
-        startYPos = (Game.BASE_HEIGHT - getHeight()) / 2.0;
-
-        speedX = Game.PL_START_SPEED_X;
-        speedY = Game.PL_START_SPEED_Y;
+        body = new PlayerBody(getWidth(), getHeight());
         setOrientation(Game.Orientation.UP);
-        velocityY = -1*speedY;
-        pxVelocityX = getXPixelsPerUpdate();
-        pxVelocityY = getYPixelsPerUpdate();
+    }
+
+    public PlayerBody getBody() {
+        return body;
     }
 
     /* Place player at the starting position of a level.
      * vertical: False if only want to position player horizontally.
      */
     public void positionAtStart(boolean vertical) {
-        if(canMove) {
-            setX(startXPos);
+        if(body.canMove()) {
+            body.positionAtStart(vertical);
+            setX(body.getX());
             if (vertical)
-                setY(startYPos);
+                setY(body.getY());
+            snapToPosition();
         }
     }
 
     // Return true if moving down
     public boolean getMovingDown() {
-        return velocityY > 0;
+        return body.isMovingDown();
     }
 
     /* Begin moving in given direction, at speed determined by speed
@@ -51,81 +43,31 @@ public class Player extends CircularGameObject {
      * right: true if move right, false if move left
      */
     public void moveInDirection(boolean right, boolean down) {
-        if(canMove) {
-            velocityX = right ? speedX : -1 * speedX;
-            velocityY = down ? speedY : -1 * speedY;
-            pxVelocityX = getXPixelsPerUpdate();
-            pxVelocityY = getYPixelsPerUpdate();
-        }
+        body.moveInDirection(right, down);
     }
 
     public void setCanMove(boolean canMove) {
-        this.canMove = canMove;
-        if(!canMove) {
-            stopHorizontalMovement();
-            velocityY = 0;
-            pxVelocityY = 0;
-        }
-        else
-            setVelocity(0, speedY);
+        body.setCanMove(canMove);
     }
 
     public void stopHorizontalMovement() {
-        velocityX = 0;
-        pxVelocityX = 0;
+        body.stopHorizontalMovement();
     }
 
 
     public boolean canMove() {
-        return canMove;
-    }
-
-    private void setVelocity(double velX, double velY) {
-        if(canMove) {
-            velocityX = velX;
-            velocityY = velY;
-            pxVelocityX = getXPixelsPerUpdate();
-            pxVelocityY = getYPixelsPerUpdate();
-        }
-    }
-
-    private double getXPixelsPerUpdate() {
-        double pixelsPerSpeedLevel = (1.0*Game.PL_HIGHEST_SPEED - Game.PL_LOWEST_SPEED) / Game.PL_MAX_SPEED;
-        double pixelsPerUpdate = pixelsPerSpeedLevel * velocityX;
-        return pixelsPerUpdate * Game.PL_SPEED_RATIO;
-    }
-
-    private double getYPixelsPerUpdate() {
-        double pixelsPerSpeedLevel = (1.0*Game.PL_HIGHEST_SPEED - Game.PL_LOWEST_SPEED) / Game.PL_MAX_SPEED;
-        double pixelsPerUpdate = pixelsPerSpeedLevel * velocityY;
-        return pixelsPerUpdate;
+        return body.canMove();
     }
 
     // Update player's position
     public void update() {
         super.update();
 
-        // Bounce off top wall
-        if(getY() <= 0 && velocityY < 0) {
-            setVelocity(velocityX, -1*velocityY);
-            setOrientation(Game.Orientation.DOWN);
-        }
-        // Bounce off bottom wall
-        else if (getY() >= Game.BASE_HEIGHT - getHeight() && velocityY >= 0) {
-            setVelocity(velocityX, -1*velocityY);
-            setOrientation(Game.Orientation.UP);
-        }
-        // Hit left wall
-        if(getX() <= 0 && velocityX < 0) {
-            setVelocity(0, velocityY);
-        }
-        // Bounce off right wall
-        else if (getX() >= Game.BASE_WIDTH - getWidth() && velocityX >= 0) {
-            setVelocity(Game.BASE_WIDTH - getWidth(), velocityY);
-        }
-        // Move by amount dictated by velocity
-        setX(getX() + pxVelocityX);
-        setY(getY() + pxVelocityY);
+        // Face the way the player is going after bouncing off the top or bottom wall
+        if(body.update())
+            setOrientation(body.isMovingDown()? Game.Orientation.DOWN : Game.Orientation.UP);
+        setX(body.getX());
+        setY(body.getY());
     }
 
     public void draw(Canvas canvas) {
@@ -0,0 +1,165 @@
+package com.alyssalerner.mouseytrap;
+
+/** How the player moves: it always moves vertically, bouncing off the top and bottom walls, and moves
+ * horizontally only while the user holds it that way.  Kept apart from Player (which draws it) so that
+ * the rules of the game can also run without android (see Simulation).
+ * Positions and speeds are rel to BASE_WIDTH, BASE_HEIGHT.
+ */
+public class PlayerBody {
+    private double xPos, yPos;
+    private int width, height;
+
+    private double speedX, speedY;           // Speed the player should be at while it is moving (persists even while stopped)
+    private double velocityX, velocityY;     // Velocity that the player is actually moving at this moment
+    private double stepX, stepY;             // Distance moved each update at that velocity
+    private boolean canMove = true;
+
+    private double startXPos;          // Starting x position for player
+    private double startYPos;          // Starting y position for player
+
+    public PlayerBody(int width, int height) {
+        this.width = width;
+        this.height = height;
+        startXPos = (GameConstants.SAFE_SPACE_WIDTH - width) / 2.0;
+        startYPos = (GameConstants.BASE_HEIGHT - height) / 2.0;
+
+        speedX = GameConstants.PL_START_SPEED_X;
+        speedY = GameConstants.PL_START_SPEED_Y;
+        velocityY = -1*speedY;
+        stepX = getXStepPerUpdate();
+        stepY = getYStepPerUpdate();
+    }
+
+    public double getX() {
+        return xPos;
+    }
+
+    public double getY() {
+        return yPos;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Bounds of the player, the same as GameObject's.
+    public int getLeft() {
+        return (int)xPos;
+    }
+
+    public int getTop() {
+        return (int)yPos;
+    }
+
+    public int getRight() {
+        return (int)xPos + width;
+    }
+
+    public int getBottom() {
+        return (int)yPos + height;
+    }
+
+    /* Place player at the starting position of a level.
+     * vertical: False if only want to position player horizontally.
+     */
+    public void positionAtStart(boolean vertical) {
+        if(canMove) {
+            xPos = startXPos;
+            if (vertical)
+                yPos = startYPos;
+        }
+    }
+
+    // Return true if moving down
+    public boolean isMovingDown() {
+        return velocityY > 0;
+    }
+
+    /* Begin moving in given direction, at speed determined by speed
+     * down: true if move down, false if move up
+     * right: true if move right, false if move left
+     */
+    public void moveInDirection(boolean right, boolean down) {
+        if(canMove) {
+            velocityX = right ? speedX : -1 * speedX;
+            velocityY = down ? speedY : -1 * speedY;
+            stepX = getXStepPerUpdate();
+            stepY = getYStepPerUpdate();
+        }
+    }
+
+    public void setCanMove(boolean canMove) {
+        this.canMove = canMove;
+        if(!canMove) {
+            stopHorizontalMovement();
+            velocityY = 0;
+            stepY = 0;
+        }
+        else
+            setVelocity(0, speedY);
+    }
+
+    public void stopHorizontalMovement() {
+        velocityX = 0;
+        stepX = 0;
+    }
+
+    public boolean canMove() {
+        return canMove;
+    }
+
+    private void setVelocity(double velX, double velY) {
+        if(canMove) {
+            velocityX = velX;
+            velocityY = velY;
+            stepX = getXStepPerUpdate();
+            stepY = getYStepPerUpdate();
+        }
+    }
+
+    private double getXStepPerUpdate() {
+        double pixelsPerSpeedLevel = (1.0*GameConstants.PL_HIGHEST_SPEED - GameConstants.PL_LOWEST_SPEED) / GameConstants.PL_MAX_SPEED;
+        double pixelsPerUpdate = pixelsPerSpeedLevel * velocityX;
+        return pixelsPerUpdate * GameConstants.PL_SPEED_RATIO;
+    }
+
+    private double getYStepPerUpdate() {
+        double pixelsPerSpeedLevel = (1.0*GameConstants.PL_HIGHEST_SPEED - GameConstants.PL_LOWEST_SPEED) / GameConstants.PL_MAX_SPEED;
+        double pixelsPerUpdate = pixelsPerSpeedLevel * velocityY;
+        return pixelsPerUpdate;
+    }
+
+    /* Update player's position.
+     * return true if the player bounced off the top or bottom wall.
+     */
+    public boolean update() {
+        boolean bounced = false;
+
+        // Bounce off top wall
+        if(yPos <= 0 && velocityY < 0) {
+            setVelocity(velocityX, -1*velocityY);
+            bounced = true;
+        }
+        // Bounce off bottom wall
+        else if (yPos >= GameConstants.BASE_HEIGHT - height && velocityY >= 0) {
+            setVelocity(velocityX, -1*velocityY);
+            bounced = true;
+        }
+        // Hit left wall
+        if(xPos <= 0 && velocityX < 0) {
+            setVelocity(0, velocityY);
+        }
+        // Bounce off right wall
+        else if (xPos >= GameConstants.BASE_WIDTH - width && velocityX >= 0) {
+            setVelocity(GameConstants.BASE_WIDTH - width, velocityY);
+        }
+        // Move by amount dictated by velocity
+        xPos += stepX;
+        yPos += stepY;
+        return bounced;
+    }
+}
@@ -0,0 +1,73 @@
+package com.alyssalerner.mouseytrap;
+
+import android.graphics.Canvas;
+import android.util.Log;
+import android.view.SurfaceHolder;
+
+/** Draws the latest snapshot published by the SimulationThread (used when Game.SEPARATE_RENDER_THREAD
+ * is true), so that drawing and updating can happen at the same time on different cores.
+ */
+public class RenderThread extends Thread {
+    private static final String TAG = "RenderThread";
+    private SurfaceHolder surfaceHolder;
+    private GamePanel gamePanel;
+    private SnapshotBuffer snapshots;
+    private volatile boolean running;    // True when this thread should be running
+
+    public RenderThread(SurfaceHolder sh, GamePanel gp, SnapshotBuffer snapshots) {
+        super(TAG);
+        this.surfaceHolder = sh;
+        this.gamePanel = gp;
+        this.snapshots = snapshots;
+    }
+
+    @Override
+    public void run() {
+        long frameStartTime;
+        long lastFrameTime = System.nanoTime();
+        Canvas canvas;
+        while(running) {
+            frameStartTime = System.nanoTime();
+            FrameProfiler.recordFrame(frameStartTime - lastFrameTime, MainThread.NANOS_PER_UPDATE);
+            lastFrameTime = frameStartTime;
+            WorldSnapshot snapshot = snapshots.getReadSnapshot();
+            canvas = null;
+
+            if(snapshot != null) {
+                try {
+                    canvas = this.surfaceHolder.lockCanvas();
+                    if(canvas != null) {
+                        // Interpolate by how long it's been since the snapshot's update
+                        double interpolation = 1.0 * (System.nanoTime() - snapshot.getUpdateTime()) / MainThread.NANOS_PER_UPDATE;
+                        this.gamePanel.drawSnapshot(canvas, snapshot, Math.min(interpolation, 1.0));
+                    }
+                } catch (Exception e) {
+                    Log.e(TAG, "Error in render thread: " + e);
+                } finally {
+                    if (canvas != null) {
+                        try {
+                            surfaceHolder.unlockCanvasAndPost(canvas);
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            }
+
+            // Don't draw faster than MAX_RENDER_FPS
+            long waitTime = MainThread.NANOS_PER_FRAME - (System.nanoTime() - frameStartTime);
+            if(waitTime > 0) {
+                long sleepStartTime = System.nanoTime();
+                try {
+                    sleep(waitTime / 1000000, (int)(waitTime % 1000000));
+                } catch (InterruptedException e) {
+                }
+                FrameProfiler.record(FrameProfiler.Phase.SLEEP_JITTER, System.nanoTime() - sleepStartTime - waitTime);
+            }
+        }
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+}
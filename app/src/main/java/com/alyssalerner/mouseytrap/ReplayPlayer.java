@@ -0,0 +1,147 @@
+package com.alyssalerner.mouseytrap;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Plays back a game recorded by ReplayRecorder, in a Simulation, as fast as it can run.
+ * The whole recording is read up front, so playing it back doesn't touch the stream.
+ * Usage:   Read a recording with read(), then call play() (which can be called again to replay it),
+ *          and check the result with matches().
+ */
+public class ReplayPlayer implements Simulation.Controller {
+    private static final Simulation.Input[] INPUTS = Simulation.Input.values();
+
+    private long seed;
+    private int playerWidth, trapWidth, cheeseWidth;
+    private long[] eventTicks = new long[64];   // The update each event applies to, in order
+    private Simulation.Input[] events = new Simulation.Input[64];
+    private int nEvents = 0;
+    private long ticks;         // Number of updates the recorded game ran for
+    private int finalLevelId, finalScore;
+
+    private int nextEvent;      // The first event not played back yet
+
+    private ReplayPlayer() {}
+
+    /* Read a whole recording.
+     * in: The recording, as written by ReplayRecorder.writeTo().
+     */
+    public static ReplayPlayer read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if(data.readInt() != ReplayRecorder.MAGIC)
+            throw new IOException("Not a replay");
+        int version = data.readUnsignedByte();
+        if(version != ReplayRecorder.VERSION)
+            throw new IOException("Unsupported replay version " + version);
+
+        ReplayPlayer replay = new ReplayPlayer();
+        replay.seed = data.readLong();
+        replay.playerWidth = data.readShort();
+        replay.trapWidth = data.readShort();
+        replay.cheeseWidth = data.readShort();
+
+        long tick = 0;
+        while(true) {
+            long record = readVarLong(data);
+            tick += record >>> 2;
+            Simulation.Input input = INPUTS[(int)(record & 3)];
+            if(input == Simulation.Input.NONE)
+                break;  // The end record
+            replay.addEvent(tick, input);
+        }
+        replay.ticks = tick;
+        replay.finalLevelId = (int)readVarLong(data);
+        replay.finalScore = (int)readVarLong(data);
+        return replay;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getNEvents() {
+        return nEvents;
+    }
+
+    public int getFinalLevelId() {
+        return finalLevelId;
+    }
+
+    public int getFinalScore() {
+        return finalScore;
+    }
+
+    // Create a simulation of the recorded game, before its first update.
+    public Simulation createSimulation() {
+        return new Simulation(new LevelGenerator(seed, trapWidth, cheeseWidth), playerWidth, trapWidth, cheeseWidth);
+    }
+
+    /* Play the recorded game from the start, until it's lost or runs for as many updates as it was recorded for.
+     * return the simulation at the end of the game.
+     */
+    public Simulation play() {
+        Simulation simulation = createSimulation();
+        play(simulation);
+        return simulation;
+    }
+
+    /* Play the recorded game from the start in an existing simulation (which is reset), eg. to reuse its levels' memory.
+     */
+    public void play(Simulation simulation) {
+        simulation.reset();
+        nextEvent = 0;
+        simulation.run(this, ticks);
+    }
+
+    // Determine if a played back game ended the same way as the recorded one.
+    public boolean matches(Simulation simulation) {
+        return simulation.isOver() && simulation.getTicks() == ticks
+                && simulation.getLevelId() == finalLevelId && simulation.getScore() == finalScore;
+    }
+
+    /* Give the input recorded for the next update.
+     * Each input sets the player's horizontal movement outright, so when several were recorded for the same
+     * update, applying the last one is the same as applying them all in order.
+     */
+    @Override
+    public Simulation.Input getInput(Simulation simulation) {
+        long tick = simulation.getTicks() + 1;
+        Simulation.Input input = Simulation.Input.NONE;
+        while(nextEvent < nEvents && eventTicks[nextEvent] <= tick)
+            input = events[nextEvent++];
+        return input;
+    }
+
+    private void addEvent(long tick, Simulation.Input input) {
+        if(nEvents == events.length) {
+            long[] newTicks = new long[nEvents * 2];
+            Simulation.Input[] newEvents = new Simulation.Input[nEvents * 2];
+            System.arraycopy(eventTicks, 0, newTicks, 0, nEvents);
+            System.arraycopy(events, 0, newEvents, 0, nEvents);
+            eventTicks = newTicks;
+            events = newEvents;
+        }
+        eventTicks[nEvents] = tick;
+        events[nEvents++] = input;
+    }
+
+    // Read a number written by ReplayRecorder.writeVarLong().
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if(b < 0)
+                throw new EOFException("Replay ends in the middle of a record");
+            value |= (long)(b & 0x7F) << shift;
+            if((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed replay");
+    }
+}
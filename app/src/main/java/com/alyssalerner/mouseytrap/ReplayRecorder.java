@@ -0,0 +1,98 @@
+package com.alyssalerner.mouseytrap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/** Records the input of one game, so that it can be played back exactly with ReplayPlayer.
+ * Since every level comes from the seed (see LevelGenerator), the seed, the object sizes and the input for
+ * each update are all it takes to run the same game again.
+ * The format is a header, then one record per input event, then an end record:
+ *      header: MAGIC (int), VERSION (byte), seed (long), player, trap and cheese widths (shorts).
+ *      event:  ((updates since the last event << 2) | input) as a variable-length number (7 bits per byte,
+ *              lowest first, high bit set on every byte but the last), where input is an Input's ordinal.
+ *      end:    The same, with Input.NONE, counting to the update the game ended on, then the final level
+ *              and score, also as variable-length numbers.
+ * Most events take a single byte.  Safe to record from a different thread than the one that finishes it.
+ */
+public class ReplayRecorder {
+    public static final int MAGIC = 0x4D545250;    // "MTRP"
+    public static final int VERSION = 1;
+
+    private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private long lastTick = 0;      // Update of the last event recorded
+    private int nEvents = 0;
+    private boolean finished = false;
+
+    /* seed: The seed the game's levels are generated from.
+     * playerWidth, trapWidth, cheeseWidth: The sizes of the objects (rel to BASE_WIDTH), see Simulation.
+     */
+    public ReplayRecorder(long seed, int playerWidth, int trapWidth, int cheeseWidth) {
+        try {
+            DataOutputStream header = new DataOutputStream(bytes);
+            header.writeInt(MAGIC);
+            header.writeByte(VERSION);
+            header.writeLong(seed);
+            header.writeShort(playerWidth);
+            header.writeShort(trapWidth);
+            header.writeShort(cheeseWidth);
+        } catch(IOException e) {
+            throw new AssertionError(e);    // Writing to memory can't fail
+        }
+    }
+
+    /* Record an input event.  Events for the same update are played back in the order they're recorded.
+     * tick: The update the input applies to, as numbered by Simulation.getTicks() (the first update is 1).
+     * input: The input, ignored if it's NONE.
+     */
+    public synchronized void record(long tick, Simulation.Input input) {
+        if(finished || input == Simulation.Input.NONE)
+            return;
+        writeRecord(Math.max(tick, lastTick), input);
+        nEvents++;
+    }
+
+    /* End the recording.  Events recorded after this are ignored.
+     * ticks: The number of updates the game ran for, including the one it was lost on.
+     * levelId, score: The level and score the game ended with, which the playback is checked against.
+     */
+    public synchronized void finish(long ticks, int levelId, int score) {
+        if(finished)
+            return;
+        writeRecord(Math.max(ticks, lastTick), Simulation.Input.NONE);
+        writeVarLong(bytes, levelId);
+        writeVarLong(bytes, score);
+        finished = true;
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    public synchronized int getNEvents() {
+        return nEvents;
+    }
+
+    public synchronized byte[] toByteArray() {
+        return bytes.toByteArray();
+    }
+
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        bytes.writeTo(out);
+    }
+
+    private void writeRecord(long tick, Simulation.Input input) {
+        writeVarLong(bytes, ((tick - lastTick) << 2) | input.ordinal());
+        lastTick = tick;
+    }
+
+    // Write a non-negative number in as many bytes as it needs, 7 bits at a time.
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while((value & ~0x7FL) != 0) {
+            out.write((int)(value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int)value);
+    }
+}
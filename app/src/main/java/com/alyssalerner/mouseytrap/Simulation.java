@@ -0,0 +1,265 @@
+package com.alyssalerner.mouseytrap;
+
+/** Runs the rules of the game, one update at a time, without drawing anything or depending on android.
+ * Follows GamePanel.update(): collisions with traps and cheese, the timer, panning over to the next level
+ * (during which the player can't be controlled) and running out of time.  A game ends as soon as the
+ * timer runs out, since the lost game animation doesn't change anything.
+ * Input is given for each update, as if the touch events since the last update were applied just before it.
+ */
+public class Simulation {
+
+    /* Touch input for one update.
+     * NONE:    No change.
+     * LEFT:    Touching the left side of the screen.
+     * RIGHT:   Touching the right side of the screen.
+     * STOP:    Let go of the screen.
+     */
+    public enum Input {NONE, LEFT, RIGHT, STOP}
+
+    /* The state of the game.
+     * PLAYING:         The player can move around the current level.
+     * PANNING:         The view is panning over to the next level.
+     * LEVEL_LOADED:    Finished panning; the player can move again after this update.
+     * LOST:            The timer ran out.
+     */
+    public enum State {PLAYING, PANNING, LEVEL_LOADED, LOST}
+
+    // Decides the input for each update, eg. a script or a bot.
+    public interface Controller {
+        Input getInput(Simulation simulation);
+    }
+
+    private static final int PAN_GOAL = GameConstants.BASE_WIDTH - GameConstants.SAFE_SPACE_WIDTH;  // Total offset to pan between levels
+
+    private LevelGenerator generator;
+    private PlayerBody player;
+    private int trapWidth, cheeseWidth;
+    private int[] trapLefts = new int[GameConstants.COLS];   // Bounds of a trap in each col and row
+    private int[] trapTops = new int[GameConstants.ROWS];
+
+    private State state;
+    private LevelLayout level;      // The current level
+    private LevelLayout nextLevel;  // The level being panned to
+    private int cheesesLeft;        // Bit i is set if the current level's cheese i hasn't been collected
+    private int panOffset;
+    private int timeLeft;
+    private int score;
+    private long ticks;             // Number of updates since the game started
+
+    /* generator: Creates the levels to play.
+     * playerWidth: The width of the player (rel to BASE_WIDTH).
+     * trapWidth, cheeseWidth: The widths of the traps and cheese, which must be the same as the generator's.
+     */
+    public Simulation(LevelGenerator generator, int playerWidth, int trapWidth, int cheeseWidth) {
+        this.generator = generator;
+        this.trapWidth = trapWidth;
+        this.cheeseWidth = cheeseWidth;
+        player = new PlayerBody(playerWidth, GameConstants.PLAYER_HEIGHT);
+        for(int col = 0; col < GameConstants.COLS; col++)
+            trapLefts[col] = (int)Board.getCenteredX(col, trapWidth);
+        for(int row = 0; row < GameConstants.ROWS; row++)
+            trapTops[row] = (int)Board.getCenteredY(row, GameConstants.TRAP_HEIGHT);
+        reset();
+    }
+
+    // Start a new game at START_LEVEL, the same as GamePanel.startNewGame().
+    public void reset() {
+        setLevel(generator.generate(GameConstants.START_LEVEL));
+        nextLevel = null;
+        state = State.PLAYING;
+        timeLeft = GameConstants.TOTAL_TIME;
+        score = 0;
+        ticks = 0;
+        player.setCanMove(true);
+        player.positionAtStart(true);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isOver() {
+        return state == State.LOST;
+    }
+
+    public LevelLayout getLevel() {
+        return level;
+    }
+
+    public int getLevelId() {
+        return level.getId();
+    }
+
+    // Determine if cheese i of the current level hasn't been collected yet.
+    public boolean hasCheese(int i) {
+        return (cheesesLeft & (1 << i)) != 0;
+    }
+
+    public PlayerBody getPlayer() {
+        return player;
+    }
+
+    public int getTimeLeft() {
+        return timeLeft;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    /* Run updates until the game is lost or maxTicks updates have passed.
+     * controller: Decides the input for each update.
+     * return the number of updates run.
+     */
+    public long run(Controller controller, long maxTicks) {
+        long start = ticks;
+        while(!isOver() && ticks - start < maxTicks)
+            update(controller.getInput(this));
+        return ticks - start;
+    }
+
+    /* Run one update.
+     * input: The input since the last update.
+     * return the state after the update.
+     */
+    public State update(Input input) {
+        if(state == State.LOST)
+            return state;
+        ticks++;
+
+        // Input only reaches the player while playing (see GamePanel.playerCanMove())
+        if(state == State.PLAYING)
+            applyInput(input);
+
+        if(timeLeft <= 0) {
+            player.setCanMove(false);
+            state = State.LOST;
+            return state;
+        }
+        else if(state == State.PLAYING)
+            checkForCollisions();
+        else if(state == State.LEVEL_LOADED)
+            state = State.PLAYING;
+
+        if(state == State.PANNING)
+            pan();
+        player.update();
+        timeLeft--;
+        return state;
+    }
+
+    // Apply input the same way as GamePanel.applyInput().
+    private void applyInput(Input input) {
+        switch(input) {
+            case LEFT:  player.moveInDirection(false, player.isMovingDown());  break;
+            case RIGHT: player.moveInDirection(true, player.isMovingDown());   break;
+            case STOP:  player.stopHorizontalMovement();    break;
+            default:    break;
+        }
+    }
+
+    // The same as GamePanel.checkForCollisions().
+    private void checkForCollisions() {
+        if(hitsTrap()) {
+            player.positionAtStart(true);
+            player.stopHorizontalMovement();
+        }
+
+        for(int i = 0; i < level.getNCheeses(); i++) {
+            if(hasCheese(i) && hitsCheese(i)) {
+                timeLeft = Math.min(timeLeft + GameConstants.CHEESE_TIME_VALUE, GameConstants.TOTAL_TIME);
+                score++;
+                cheesesLeft &= ~(1 << i);
+            }
+        }
+
+        if(player.getX() > GameConstants.SLIDE_THRESHOLD) {
+            nextLevel = generator.generate(level.getId() + 1);
+            panOffset = 0;
+            state = State.PANNING;
+            player.stopHorizontalMovement();
+        }
+    }
+
+    // The same as LevelLoader.update().
+    private void pan() {
+        panOffset = Math.min(panOffset + GameConstants.PAN_SPEED, PAN_GOAL);
+        if(panOffset == PAN_GOAL) {
+            setLevel(nextLevel);
+            nextLevel = null;
+            state = State.LEVEL_LOADED;
+            player.positionAtStart(false);
+        }
+    }
+
+    private void setLevel(LevelLayout level) {
+        this.level = level;
+        cheesesLeft = (1 << level.getNCheeses()) - 1;
+    }
+
+    // Determine if the player hits a trap, checking only the spaces its bounds overlap (see Level.findTrapCollision()).
+    private boolean hitsTrap() {
+        int left = player.getLeft();
+        int top = player.getTop();
+        int right = player.getRight();
+        int bottom = player.getBottom();
+
+        int firstCol = Math.max(0, Board.convertBaseXToCol(left));
+        int lastCol = Math.min(GameConstants.COLS - 1, Board.convertBaseXToCol(right - 1));
+        int firstRow = Math.max(0, Board.convertBaseYToRow(top));
+        int lastRow = Math.min(GameConstants.ROWS - 1, Board.convertBaseYToRow(bottom - 1));
+        for(int row = firstRow; row <= lastRow; row++) {
+            for(int col = firstCol; col <= lastCol; col++) {
+                if(!level.hasTrap(row, col))
+                    continue;
+                int trapLeft = trapLefts[col];
+                int trapTop = trapTops[row];
+                if(Collision.circleHitsRect(left, top, right, bottom,
+                        trapLeft, trapTop, trapLeft + trapWidth, trapTop + GameConstants.TRAP_HEIGHT))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    // Determine if the player hits cheese i, the same as CircularGameObject.collidesWith(CircularGameObject).
+    private boolean hitsCheese(int i) {
+        return Collision.circleHitsCircle(player.getX(), player.getY(), player.getWidth(), player.getHeight(),
+                level.getCheeseX(i), level.getCheeseY(i), cheeseWidth, GameConstants.CHEESE_HEIGHT);
+    }
+
+    /* Gives the same input every update, eg. to measure how long it takes to get through a level by holding right.
+     */
+    public static class ConstantInput implements Controller {
+        private Input input;
+
+        public ConstantInput(Input input) {
+            this.input = input;
+        }
+
+        @Override
+        public Input getInput(Simulation simulation) {
+            return input;
+        }
+    }
+
+    /* Gives a scripted input for each update, then NONE once the script runs out.
+     */
+    public static class Script implements Controller {
+        private Input[] inputs;
+        private int next = 0;
+
+        public Script(Input[] inputs) {
+            this.inputs = inputs;
+        }
+
+        @Override
+        public Input getInput(Simulation simulation) {
+            return (next < inputs.length)? inputs[next++] : Input.NONE;
+        }
+    }
+}
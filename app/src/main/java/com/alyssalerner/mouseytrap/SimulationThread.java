@@ -0,0 +1,55 @@
+package com.alyssalerner.mouseytrap;
+
+import android.util.Log;
+
+/** Runs the game's updates on their own thread, publishing a snapshot after each one for the
+ * RenderThread to draw (used when Game.SEPARATE_RENDER_THREAD is true).
+ */
+public class SimulationThread extends Thread {
+    private static final String TAG = "SimulationThread";
+    private GamePanel gamePanel;
+    private SnapshotBuffer snapshots;
+    private volatile boolean running;    // True when this thread should be running
+
+    public SimulationThread(GamePanel gp, SnapshotBuffer snapshots) {
+        super(TAG);
+        this.gamePanel = gp;
+        this.snapshots = snapshots;
+    }
+
+    @Override
+    public void run() {
+        long nextUpdateTime = System.nanoTime();
+        while(running) {
+            try {
+                long updateStartTime = FrameProfiler.startTiming();
+                this.gamePanel.update();
+                FrameProfiler.recordSince(FrameProfiler.Phase.UPDATE, updateStartTime);
+
+                WorldSnapshot snapshot = snapshots.getWriteSnapshot();
+                this.gamePanel.takeSnapshot(snapshot);
+                snapshot.setUpdateTime(System.nanoTime());
+                snapshots.publish();
+            } catch (Exception e) {
+                Log.e(TAG, "Error in simulation thread: " + e);
+            }
+
+            // Wait until the next update is due.  If the device falls too far behind, let the game
+            // slow down rather than trying to catch up forever.
+            nextUpdateTime += MainThread.NANOS_PER_UPDATE;
+            long waitTime = nextUpdateTime - System.nanoTime();
+            if(waitTime < -MainThread.MAX_FRAME_NANOS)
+                nextUpdateTime = System.nanoTime();
+            else if(waitTime > 0) {
+                try {
+                    sleep(waitTime / 1000000, (int)(waitTime % 1000000));
+                } catch (InterruptedException e) {
+                }
+            }
+        }
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+}
@@ -0,0 +1,40 @@
+package com.alyssalerner.mouseytrap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Lock-free triple buffer of world snapshots, for passing the game from the simulation thread to the
+ * render thread.  The writer always has a snapshot to fill and the reader always has a snapshot to draw,
+ * and neither ever waits for the other.
+ * Usage:   Writer fills getWriteSnapshot() and then calls publish().
+ *          Reader calls getReadSnapshot() to get the most recently published snapshot.
+ */
+public class SnapshotBuffer {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;     // Set on the shared index when it hasn't been read yet.
+
+    private final WorldSnapshot[] snapshots = {new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot()};
+    private final AtomicInteger shared = new AtomicInteger(0);  // Index of the snapshot passed between the two threads
+    private int writeIndex = 1;     // Only used by the writer
+    private int readIndex = 2;      // Only used by the reader
+    private volatile boolean published = false;  // True once any snapshot has been published
+
+    // Get the snapshot to fill next (writer only).
+    public WorldSnapshot getWriteSnapshot() {
+        return snapshots[writeIndex];
+    }
+
+    // Make the snapshot just filled available to the reader (writer only).
+    public void publish() {
+        writeIndex = shared.getAndSet(writeIndex | FRESH) & INDEX_MASK;
+        published = true;
+    }
+
+    // Get the most recently published snapshot, or null if none has been published yet (reader only).
+    public WorldSnapshot getReadSnapshot() {
+        if(!published)
+            return null;
+        if((shared.get() & FRESH) != 0)
+            readIndex = shared.getAndSet(readIndex) & INDEX_MASK;
+        return snapshots[readIndex];
+    }
+}
@@ -0,0 +1,54 @@
+package com.alyssalerner.mouseytrap;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/** Shares scaled and rotated bitmaps between all game objects made from the same image at the same size,
+ * so that creating an object (eg. every trap of every level) doesn't allocate any new bitmaps.
+ * The bitmaps returned are shared, so they must never be modified.
+ */
+public class SpriteCache {
+    // For each source image, every set of rotated sprites made from it so far
+    private static final IdentityHashMap<Bitmap, ArrayList<Bitmap[]>> sprites = new IdentityHashMap<>();
+
+    /* Get the sprites for an image at a size, creating them the first time.
+     * source: The image, which is expected to be facing downward.
+     * pxWidth, pxHeight: The size in pixels of the downward-facing sprite.
+     * return the sprite facing each orientation, as [UP, DOWN, LEFT, RIGHT].
+     */
+    public static synchronized Bitmap[] getSprites(Bitmap source, int pxWidth, int pxHeight) {
+        ArrayList<Bitmap[]> sizes = sprites.get(source);
+        if(sizes == null) {
+            sizes = new ArrayList<>();
+            sprites.put(source, sizes);
+        }
+
+        for(Bitmap[] rotated : sizes) {
+            if(rotated[1].getWidth() == pxWidth && rotated[1].getHeight() == pxHeight)
+                return rotated;
+        }
+
+        Bitmap[] rotated = createSprites(source, pxWidth, pxHeight);
+        sizes.add(rotated);
+        return rotated;
+    }
+
+    // Scale the image and create all rotated versions of it.
+    private static Bitmap[] createSprites(Bitmap source, int pxWidth, int pxHeight) {
+        Bitmap[] rotated = new Bitmap[4];
+        Bitmap image = Bitmap.createScaledBitmap(source, pxWidth, pxHeight, false);
+
+        Matrix matrix = new Matrix();
+        rotated[1] = image;
+        matrix.postRotate(90);
+        rotated[2] = Bitmap.createBitmap(image, 0, 0, pxWidth, pxHeight, matrix, true);
+        matrix.postRotate(90);
+        rotated[0] = Bitmap.createBitmap(image, 0, 0, pxWidth, pxHeight, matrix, true);
+        matrix.postRotate(90);
+        rotated[3] = Bitmap.createBitmap(image, 0, 0, pxWidth, pxHeight, matrix, true);
+        return rotated;
+    }
+}
@@ -5,6 +5,9 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.util.Log;
 
+import java.util.Arrays;
+import java.util.Comparator;
+
 
 /**
  * Created by Alyssa on 2016-05-06.
@@ -14,17 +17,24 @@ public class Timer {
     private static final double X_POS = Game.TIMER_X_POS;
     private static final double Y_POS = Game.TIMER_Y_POS;
     private static final int HEIGHT = Game.TIMER_HEIGHT;
-    private static final int DULL_VALUE = 70;   // How dull to make the used parts of the timer image.
+    private static final int WARNING_COLOR = Color.rgb(170, 40, 40);    // Color of the used parts of the timer once time is almost up.
 
     private Bitmap workingImage;    // The current image of the timer
     private Bitmap fullImage;       // The full image of full color
     private int pxHeight;   // Width and height of timer in pixels
     private double pxXPos, pxYPos;
 
-    private int timeLeft = Game.TOTAL_TIME;    // The value left in the timer, out of a total of FULL_VALUE
+    private int timeLeft = GameConstants.TOTAL_TIME;    // The value left in the timer, out of a total of FULL_VALUE
     private int[] fullPixels;
     private int[] workingPixels;
 
+    // For drawing with the angle table (see Game.TIMER_ANGLE_TABLE)
+    private int[] anglePixels;      // Indices of all visible pixels, sorted by their position around the circle.
+    private double[] anglePortions; // The portion around the circle of each pixel in anglePixels.
+    private int[] dullPixels;       // Dull version of each pixel in fullPixels.
+    private int nDullDrawn;         // Number of pixels (from the start of anglePixels) that are currently dull in workingImage.
+    private boolean warningDrawn;   // True if the dull pixels in workingImage currently have the warning color.
+
     public Timer(Bitmap image) {
         pxHeight = (int)Game.convertToPixelX(HEIGHT);
         pxXPos = Game.convertToPixelX(X_POS);
@@ -41,6 +51,52 @@ public class Timer {
         fullImage.getPixels(fullPixels, 0, pxHeight, 0, 0, pxHeight, pxHeight);
         workingImage = Bitmap.createBitmap(fullImage);
         workingImage.getPixels(workingPixels, 0, pxHeight, 0, 0, pxHeight, pxHeight);
+
+        if(Game.TIMER_ANGLE_TABLE) {
+            workingImage = fullImage.copy(Bitmap.Config.ARGB_8888, true);
+            initAngleTable();
+        }
+    }
+
+    /* Find the portion around the circle of every visible pixel once, so that each draw only has to
+     * touch the pixels that have changed since the last draw.
+     */
+    private void initAngleTable() {
+        dullPixels = new int[fullPixels.length];
+        int nVisible = 0;
+        for(int i = 0; i < fullPixels.length; i++) {
+            dullPixels[i] = TimerWheel.makeDull(fullPixels[i]);
+            if(Color.alpha(fullPixels[i]) > 0)
+                nVisible++;
+        }
+
+        final double[] portions = new double[fullPixels.length];
+        Integer[] sorted = new Integer[nVisible];
+        int n = 0;
+        for(int i = 0; i < fullPixels.length; i++) {
+            if(Color.alpha(fullPixels[i]) > 0) {
+                portions[i] = TimerWheel.getPixelPortion(i % pxHeight, i / pxHeight, pxHeight);
+                // The exact center has no angle, so it is never dull (same as in isDull())
+                if(Double.isNaN(portions[i]))
+                    portions[i] = Double.POSITIVE_INFINITY;
+                sorted[n++] = i;
+            }
+        }
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Double.compare(portions[a], portions[b]);
+            }
+        });
+
+        anglePixels = new int[nVisible];
+        anglePortions = new double[nVisible];
+        for(int i = 0; i < nVisible; i++) {
+            anglePixels[i] = sorted[i];
+            anglePortions[i] = portions[sorted[i]];
+        }
+        nDullDrawn = 0;
+        warningDrawn = false;
     }
 
     public int getTimeLeft() {
@@ -50,26 +106,13 @@ public class Timer {
     // Add the given time to the timer (won't go past TOTAL_TIME)
     public void addTime(double time) {
         timeLeft += time;
-        if(timeLeft > Game.TOTAL_TIME)
-            timeLeft = Game.TOTAL_TIME;
-
-        int xPixel, yPixel;
-        for(int i = 0; i < fullPixels.length; i++) {
-            xPixel = (i % pxHeight);
-            yPixel = (i / pxHeight);
-
-            // Take back full color when necessary
-            if(Color.alpha(fullPixels[i]) > 0 && !isDull(xPixel, yPixel)) {
-                workingPixels[i] = fullPixels[i];
-            }
-        }
+        if(timeLeft > GameConstants.TOTAL_TIME)
+            timeLeft = GameConstants.TOTAL_TIME;
+        // Pixels are brightened again on the next draw
     }
 
     public void reset() {
-        timeLeft = Game.TOTAL_TIME;
-        for (int i = 0; i < fullPixels.length; i++) {
-            workingPixels[i] = fullPixels[i];
-        }
+        timeLeft = GameConstants.TOTAL_TIME;
     }
 
     // Decrement the timer each update
@@ -78,6 +121,20 @@ public class Timer {
     }
 
     public void draw(Canvas canvas) {
+        draw(canvas, timeLeft);
+    }
+
+    /* Draw the timer showing the given time, which may be from a snapshot rather than the current time.
+     * The pixels only depend on timeLeft, and are only touched here, so the timer can be drawn on a
+     * different thread than the one that updates it (one thread at a time).
+     * timeLeft: The time to show.
+     */
+    public void draw(Canvas canvas, int timeLeft) {
+        if(Game.TIMER_ANGLE_TABLE) {
+            drawFromAngleTable(canvas, timeLeft);
+            return;
+        }
+
         workingImage = fullImage.copy(Bitmap.Config.ARGB_8888, true);
         int xPixel, yPixel;
 
@@ -87,13 +144,15 @@ public class Timer {
             yPixel = (i / pxHeight);
 
             if(Color.alpha(fullPixels[i]) > 0) {
-                if (isDull(xPixel, yPixel)) {
-                    workingPixels[i] = makeDull(fullPixels[i]);
+                if (isDull(xPixel, yPixel, timeLeft)) {
+                    workingPixels[i] = TimerWheel.makeDull(fullPixels[i]);
 
-                    if (timeLeft <= Game.WARNING_THRESHOLD) {
-                        workingPixels[i] = Color.rgb(170, 40, 40);
+                    if (timeLeft <= GameConstants.WARNING_THRESHOLD) {
+                        workingPixels[i] = WARNING_COLOR;
                     }
                 }
+                else
+                    workingPixels[i] = fullPixels[i];
             }
         }
 
@@ -101,45 +160,65 @@ public class Timer {
         canvas.drawBitmap(workingImage, (int)pxXPos, (int)pxYPos, null);
     }
 
-    /* Determine whether a given pixel on the current timer should be dull or not.
-     * x: The pixel's x position on the bitmap.
-     * y: The pixel's y position on the bitmap.
+    /* Draw the timer, only changing the pixels whose dull state has changed since the last draw.
+     * Since anglePixels is sorted by angle, the dull pixels are always the first nDull of them.
      */
-    private boolean isDull(double x, double y) {
-        // Place circle's middle at origin for easier calculation
-        x -= pxHeight/2.0;
-        y -= pxHeight/2.0;
-
-        // Find the quadrant of this pixel (where positive coords are bottom right)
-        int quadrant = 1;
-        if(x >= 0 && y >= 0)         quadrant = 2;
-        else if(x < 0 && y >= 0)     quadrant = 3;
-        else if(x < 0 && y < 0)    quadrant = 4;
-
-        x = Math.abs(x);
-        y = Math.abs(y);
-
-        // Calculate the portion around the circle that this pixel is located.
-        double radiansPastQuadrant = (quadrant % 2 == 0)? Math.atan(y/x) : Math.atan(x/y);
-        double pixelPortion = 0.25 * (quadrant - 1);
-        pixelPortion += radiansPastQuadrant / (2*Math.PI);
-
-        double timerPortion = 1.0 - (1.0*timeLeft / Game.TOTAL_TIME);
-        return pixelPortion < timerPortion;
+    private void drawFromAngleTable(Canvas canvas, int timeLeft) {
+        int nDull = getNDullPixels(timeLeft);
+        boolean warning = (timeLeft <= GameConstants.WARNING_THRESHOLD);
+
+        // Recolor the pixels that are already dull when the warning starts or stops
+        if(warning != warningDrawn) {
+            warningDrawn = warning;
+            for(int i = 0; i < Math.min(nDull, nDullDrawn); i++)
+                setWorkingPixel(anglePixels[i], true);
+        }
+
+        // Time has gone down
+        for(int i = nDullDrawn; i < nDull; i++)
+            setWorkingPixel(anglePixels[i], true);
+        // Time has gone up
+        for(int i = nDull; i < nDullDrawn; i++)
+            setWorkingPixel(anglePixels[i], false);
+        nDullDrawn = nDull;
+
+        canvas.drawBitmap(workingImage, (int)pxXPos, (int)pxYPos, null);
     }
 
-    /* Retrieve a duller version of the given color.
-     * color: The original (brighter) color
+    /* Set a pixel of workingImage to its dull or full color.
+     * index: The pixel's index in fullPixels.
+     * dull: True to make the pixel dull, false to give it its full color.
      */
-    private int makeDull(int color) {
-        int red = Color.red(color) - DULL_VALUE;
-        int green = Color.green(color) - DULL_VALUE;
-        int blue = Color.blue(color) - DULL_VALUE;
+    private void setWorkingPixel(int index, boolean dull) {
+        int color = fullPixels[index];
+        if(dull)
+            color = warningDrawn? WARNING_COLOR : dullPixels[index];
+        workingImage.setPixel(index % pxHeight, index / pxHeight, color);
+    }
 
-        if(red < 0) red = 0;
-        if(green < 0) green = 0;
-        if(blue < 0) blue = 0;
+    // Find the number of pixels in anglePixels that should be dull with the given time left.
+    private int getNDullPixels(int timeLeft) {
+        double timerPortion = 1.0 - (1.0*timeLeft / GameConstants.TOTAL_TIME);
+
+        // Binary search for the first pixel that isn't dull
+        int low = 0;
+        int high = anglePortions.length;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(anglePortions[mid] < timerPortion)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
 
-        return Color.rgb(red, green, blue);
+    /* Determine whether a given pixel on the current timer should be dull or not (see TimerWheel).
+     * x: The pixel's x position on the bitmap.
+     * y: The pixel's y position on the bitmap.
+     * timeLeft: The time left on the timer.
+     */
+    private boolean isDull(double x, double y, int timeLeft) {
+        return TimerWheel.isDull(x, y, pxHeight, timeLeft);
     }
 }
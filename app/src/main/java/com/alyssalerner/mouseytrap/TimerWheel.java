@@ -0,0 +1,60 @@
+package com.alyssalerner.mouseytrap;
+
+/** The geometry and colors of the timer's wheel, which empties clockwise from the top as time runs out.
+ * Works on plain pixel coords and ARGB ints.
+ */
+public class TimerWheel {
+    public static final int DULL_VALUE = 70;   // How dull to make the used parts of the timer image.
+
+    /* Determine whether a given pixel on the timer should be dull or not.
+     * x: The pixel's x position on the bitmap.
+     * y: The pixel's y position on the bitmap.
+     * size: The width and height of the bitmap.
+     * timeLeft: The time left on the timer.
+     */
+    public static boolean isDull(double x, double y, int size, int timeLeft) {
+        double timerPortion = 1.0 - (1.0*timeLeft / GameConstants.TOTAL_TIME);
+        return getPixelPortion(x, y, size) < timerPortion;
+    }
+
+    /* Find the portion around the circle (from 0 to 1, clockwise from the top) that a pixel is located.
+     * x: The pixel's x position on the bitmap.
+     * y: The pixel's y position on the bitmap.
+     * size: The width and height of the bitmap.
+     */
+    public static double getPixelPortion(double x, double y, int size) {
+        // Place circle's middle at origin for easier calculation
+        x -= size/2.0;
+        y -= size/2.0;
+
+        // Find the quadrant of this pixel (where positive coords are bottom right)
+        int quadrant = 1;
+        if(x >= 0 && y >= 0)         quadrant = 2;
+        else if(x < 0 && y >= 0)     quadrant = 3;
+        else if(x < 0 && y < 0)    quadrant = 4;
+
+        x = Math.abs(x);
+        y = Math.abs(y);
+
+        // Calculate the portion around the circle that this pixel is located.
+        double radiansPastQuadrant = (quadrant % 2 == 0)? Math.atan(y/x) : Math.atan(x/y);
+        double pixelPortion = 0.25 * (quadrant - 1);
+        pixelPortion += radiansPastQuadrant / (2*Math.PI);
+        return pixelPortion;
+    }
+
+    /* Retrieve a duller (opaque) version of the given color.
+     * color: The original (brighter) color, as ARGB.
+     */
+    public static int makeDull(int color) {
+        int red = ((color >> 16) & 0xFF) - DULL_VALUE;
+        int green = ((color >> 8) & 0xFF) - DULL_VALUE;
+        int blue = (color & 0xFF) - DULL_VALUE;
+
+        if(red < 0) red = 0;
+        if(green < 0) green = 0;
+        if(blue < 0) blue = 0;
+
+        return 0xFF000000 | (red << 16) | (green << 8) | blue;
+    }
+}
@@ -3,10 +3,16 @@ package com.alyssalerner.mouseytrap;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 
-/**
+import java.util.ArrayList;
+
+/** A trap, which sends the player back to the start of the level.
+ * Traps are reused from level to level: get one with obtain() and give it back with recycle() once its
+ * level is released, so that loading a level doesn't create any new objects.
  * Created by Alyssa on 2016-03-10.
  */
 public class Trap extends GameObject {
+    private static final ArrayList<Trap> freeTraps = new ArrayList<>();     // Traps not being used by any level
+
     private int row;
     private int col;
 
@@ -15,10 +21,41 @@ public class Trap extends GameObject {
         // setOrientation(orientation);
     }
 
-    public Trap copy() {
-        Trap copy = new Trap(this.getBitmap(), this.getHeight());
-        copy.placeOnGrid(this.row, this.col);
-        return copy;
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    /* Get a trap placed at the given position on the grid, reusing a recycled one if there is one.
+     * Can be called from any thread.
+     */
+    public static Trap obtain(Bitmap image, int height, int row, int col) {
+        Trap trap = null;
+        synchronized (freeTraps) {
+            for(int i = freeTraps.size() - 1; i >= 0 && trap == null; i--) {
+                Trap free = freeTraps.get(i);
+                if(free.getSourceBitmap() == image && free.getHeight() == height)
+                    trap = freeTraps.remove(i);
+            }
+        }
+        if(trap == null)
+            trap = new Trap(image, height);
+        trap.setVisibility(true);
+        trap.setOffset(0);
+        trap.placeOnGrid(row, col);
+        return trap;
+    }
+
+    /* Give this trap back to be reused by obtain().
+     * Req: The trap must not be used (or drawn) after this.
+     */
+    public void recycle() {
+        synchronized (freeTraps) {
+            freeTraps.add(this);
+        }
     }
 
     /* Place the trap at the given position on the grid.
@@ -28,11 +65,7 @@ public class Trap extends GameObject {
     public void placeOnGrid(int row, int col) {
         this.row = row;
         this.col = col;
-        double xPos = Game.convertColToBaseX(col);
-        xPos += 0.5*((1.0 * Game.WORKING_BASE_WIDTH / Game.COLS) - getWidth());
-        double yPos = Game.convertRowToBaseY(row);
-        yPos += 0.5*((1.0 * Game.BASE_HEIGHT / Game.ROWS) - getHeight());
-        super.placeAt(xPos, yPos);
+        super.placeAt(Board.getCenteredX(col, getWidth()), Board.getCenteredY(row, getHeight()));
     }
 
     public void update() {
@@ -1,138 +1,202 @@
 package com.alyssalerner.mouseytrap;
 
-import android.util.Log;
-
-import java.util.ArrayList;
 import java.util.Random;
 
 /** Responsible for creating and locating traps such that they're all possible
- * to surpass, among other rules.
+ * to surpass, among other rules.  Only decides which grid spaces have traps (the Trap objects are
+ * created by LevelLoader).
+ * The board is kept as bitmasks of the 48 spaces, and its working state is kept in each instance, so
+ * separate creators can run on separate threads.
  * Created by Alyssa on 2016-05-24.
  */
 public class TrapCreator {
     private static final String TAG = "TrapCreator";
     private static final int MAX_PATH_STEPS = 20;   // Max number of steps the path through the traps can have.
-    private static final int MAX_TRAPS = (Game.ROWS * Game.COLS) - MAX_PATH_STEPS;
-
-    /* Represents the status of a space on the final 'board'.
-     * TRAP_ALLOWED:    Space is empty and a trap is allowed here in the future (default).
-     * TRAP_DISALLOWED: Space is empty and no trap can be placed here.
-     * HAS_TRAP:        Occupied by a trap.
-     */
-    private enum SpaceStatus {TRAP_ALLOWED, TRAP_DISALLOWED, HAS_TRAP};
+    private static final int MAX_TRAPS = (GameConstants.ROWS * GameConstants.COLS) - MAX_PATH_STEPS;
+    private static final int MAX_PATH_ATTEMPTS = 64;    // Random walks to try before building a path that's sure to fit.
+    private static final int N_CANDIDATES = 4;  // Number of layouts to create for each level, to choose the one closest to the target difficulty.
+    private static final double EASIEST_DIFFICULTY = 11;    // Target difficulty (in PathSolver steps) of the first level.
+    private static final double HARDEST_DIFFICULTY = 21;    // Target difficulty that later levels approach.
+    private static final double DIFFICULTY_LEVELS = 40;     // Number of levels to get about 2/3 of the way to HARDEST_DIFFICULTY.
+
+    private static final long ALL_SPACES = -1L >>> (64 - GameConstants.ROWS * GameConstants.COLS);
     private enum HorizDir {STRAIGHT, RIGHT};
-    private static int straightSteps;   // Number of consecutive straight steps so far.
-    private static int rightSteps;  // Number of consecutive right steps so far.
-    private static Random rand = new Random();
+    private int straightSteps;   // Number of consecutive straight steps so far.
+    private int rightSteps;  // Number of consecutive right steps so far.
 
-    private static SpaceStatus[][] spaces = new SpaceStatus[Game.ROWS][Game.COLS];  // The statuses of all the spaces on the board at the current time.;
+    // The spaces on the board at the current time, with bit (row * COLS + col) set for each space that:
+    private long disallowedMask;    // Is empty and no trap can be placed there (the path).
+    private long trapMask;          // Is occupied by a trap.
+    // Every other space is empty and a trap is allowed there in the future.
+    private int[] freeSpaces = new int[GameConstants.ROWS * GameConstants.COLS];  // Scratch list of spaces that allow traps, as row * COLS + col.
 
     // For creating a path
-    private static int curRow, curCol;
-    private static boolean curVertDir;
-    private static HorizDir curHorizDir;
+    private int curRow, curCol;
+    private boolean curVertDir;
+    private HorizDir curHorizDir;
+
+    private PathSolver solver = new PathSolver();
 
-    /* Create and locate all the traps for the given level.
+    /* Create and locate all the traps for the given level, without allocating anything.
+     * A few layouts are created, and the one whose difficulty is closest to the target for this level is used.
+     * The path makes sure there's always a way through, so if none of them can be solved the path and
+     * PathSolver disagree, which is a bug.
+     * Each creator keeps its own working state, so use one per thread.
      * levelId: The id of the level to create traps for.
+     * rand: The random number generator to use (see LevelGenerator).
+     * return: The traps as a mask, with bit (row * COLS + col) set for each space that has a trap.
+     * throws IllegalStateException if none of the layouts can be solved.
      */
-    public static ArrayList<Trap> createTraps(int levelId) {
-        createDefinitePath();
-        int nTraps = getNTraps(levelId);
-        int row, col;
-
-        // Create traps one at a time
-        if (nTraps < (int)(MAX_TRAPS * 0.75)) {
-            for (int i = 0; i < nTraps; i++) {
-                do {
-                    row = rand.nextInt(Game.ROWS);
-                    col = rand.nextInt(Game.COLS);
-                }
-                while (spaces[row][col] != SpaceStatus.TRAP_ALLOWED);
-                spaces[row][col] = SpaceStatus.HAS_TRAP;
+    public long createTrapMask(int levelId, Random rand) {
+        double targetDifficulty = getTargetDifficulty(levelId);
+        long bestTraps = 0;
+        double bestError = Double.POSITIVE_INFINITY;    // Stays infinite until a layout can be solved
+
+        for(int i = 0; i < N_CANDIDATES; i++) {
+            createDefinitePath(rand);
+            placeTraps(getNTraps(levelId), rand);
+
+            long traps = trapMask;
+            double difficulty = solver.getDifficulty(traps);
+            // Never use a layout that the solver disagrees with
+            if(difficulty == PathSolver.UNSOLVABLE)
+                continue;
+            double error = Math.abs(difficulty - targetDifficulty);
+            if(error < bestError) {
+                bestError = error;
+                bestTraps = traps;
             }
         }
-        // Alternatively, create empty spaces one at a time when more efficient.
-        else {
-            int curNTraps = 0;
-            for (int i = 0; i < Game.ROWS; i++) {
-                for(int j = 0; j < Game.ROWS; j++) {
-                    if(spaces[i][j] == SpaceStatus.TRAP_ALLOWED)
-                        spaces[i][j] = SpaceStatus.HAS_TRAP;
-                    curNTraps++;
-                }
-            }
+        if(bestError == Double.POSITIVE_INFINITY)
+            throw new IllegalStateException("None of the trap layouts for level " + levelId + " can be solved");
+        return bestTraps;
+    }
 
-            while(curNTraps > nTraps) {
-                do {
-                    row = rand.nextInt(Game.ROWS);
-                    col = rand.nextInt(Game.COLS);
-                }
-                while (spaces[row][col] == SpaceStatus.TRAP_DISALLOWED);
-                spaces[row][col] = SpaceStatus.TRAP_ALLOWED;
-                curNTraps--;
-            }
+    /* Place traps in randomly chosen spaces that allow them, by shuffling the first nTraps of a list of those spaces.
+     * Takes the same time no matter how full the grid gets.
+     */
+    private void placeTraps(int nTraps, Random rand) {
+        int nFree = 0;
+        long free = ALL_SPACES & ~(disallowedMask | trapMask);
+        while(free != 0) {
+            freeSpaces[nFree++] = Long.numberOfTrailingZeros(free);
+            free &= free - 1;
         }
 
+        nTraps = Math.min(nTraps, nFree);
+        for(int i = 0; i < nTraps; i++) {
+            int chosen = i + rand.nextInt(nFree - i);
+            int space = freeSpaces[chosen];
+            freeSpaces[chosen] = freeSpaces[i];
+            freeSpaces[i] = space;
+            trapMask |= 1L << space;
+        }
+    }
+
+    /* Invalidate the locations along some path from start to finish.  This will ensure that the level is solvable.
+     * Random walks are tried until one fits in MAX_PATH_STEPS spaces (it usually takes a few).  If none of the first
+     * MAX_PATH_ATTEMPTS do, the path is built so that it only goes straight when it can still end within
+     * MAX_PATH_STEPS spaces (see canGoStraight()), so the time it takes stays bounded.
+     */
+    private void createDefinitePath(Random rand) {
+        for(int i = 0; i < MAX_PATH_ATTEMPTS; i++) {
+            walkPath(rand, false);
+            if(Long.bitCount(disallowedMask) <= MAX_PATH_STEPS)
+                return;
+        }
+        walkPath(rand, true);
+    }
+
+    /* Walk a random path from the first col to the last, marking its spaces.
+     * keepInBudget: True to only go straight when the path can still end within MAX_PATH_STEPS spaces.
+     */
+    private void walkPath(Random rand, boolean keepInBudget) {
+        disallowedMask = 0;
+        trapMask = 0;
         straightSteps = 0;
         rightSteps = 0;
-        ArrayList<Trap> finalTraps = createFinalTraps();
-        // printPath(false);
-        return finalTraps;
-    }
+        curRow = rand.nextInt(GameConstants.ROWS);   // Current row and column that the imaginary player is at.
+        curCol = 0;
+        curVertDir = rand.nextBoolean();  // Current direction (true = up, false = down)
+        curHorizDir = HorizDir.RIGHT;
+        disallowTrap(curRow, curCol);
 
-    // Initialize the spaces to allow traps anywhere.
-    private static void initSpaces() {
-        for(int i = 0; i < Game.ROWS; i++) {
-            for(int j = 0; j < Game.COLS; j++) {
-                spaces[i][j] = SpaceStatus.TRAP_ALLOWED;
-            }
+        while (curCol < GameConstants.COLS - 1) {
+            stepVertically();
+            if (curRow > 0 && curRow < GameConstants.ROWS - 1)
+                stepHorizontally(rand, keepInBudget);
         }
+        stepVertically();
     }
 
-    // Invalidate the locations along some path from start to finish.  This will ensure that the level is solvable.
-    // Use levelId to determine the complexity of the path.
-    private static void createDefinitePath() {
-        do {
-            initSpaces();
-            curRow = rand.nextInt(Game.ROWS);   // Current row and column that the imaginary player is at.
-            curCol = 0;
-            curVertDir = rand.nextBoolean();  // Current direction (true = up, false = down)
-            curHorizDir = HorizDir.RIGHT;
-            spaces[curRow][curCol] = SpaceStatus.TRAP_DISALLOWED;
-
-            while (curCol < Game.COLS - 1) {
-                stepVertically();
-                if (curRow > 0 && curRow < Game.ROWS - 1)
-                    stepHorizontally();
+    // Mark a space of the path, where traps are disallowed.
+    private void disallowTrap(int row, int col) {
+        disallowedMask |= 1L << (row * GameConstants.COLS + col);
+    }
+
+    /* Determine if the path can go straight at the current step and still end within MAX_PATH_STEPS spaces.
+     * Going straight stays in the current space, so this follows the path from here as if it went right at
+     * every chance (which is always possible) and counts the spaces it would add.
+     */
+    private boolean canGoStraight() {
+        int row = curRow;
+        int col = curCol;
+        boolean vertDir = curVertDir;
+        long path = disallowedMask;     // The path so far plus the spaces this one adds
+
+        while(true) {
+            // Same as stepVertically()
+            row += (vertDir)? -1 : 1;
+            if(row == -1) {
+                row = 1;
+                vertDir = false;
             }
-            stepVertically();
-        } while(getInvalidSpacesCount() > MAX_PATH_STEPS);
+            else if(row == GameConstants.ROWS) {
+                row = GameConstants.ROWS - 2;
+                vertDir = true;
+            }
+            path |= 1L << (row * GameConstants.COLS + col);
+
+            // That was the last vertical step once the path reaches the last col
+            if(col == GameConstants.COLS - 1)
+                break;
+
+            if(row > 0 && row < GameConstants.ROWS - 1) {
+                col++;
+                path |= 1L << (row * GameConstants.COLS + col);
+            }
+        }
+        return Long.bitCount(path) <= MAX_PATH_STEPS;
     }
 
-    private static void stepVertically() {
+    private void stepVertically() {
         curRow += (curVertDir)? -1 : 1;
         if(curRow == -1) {
             curRow = 1;
             curVertDir = false;
         }
-        else if(curRow == Game.ROWS) {
-            curRow = Game.ROWS - 2;
+        else if(curRow == GameConstants.ROWS) {
+            curRow = GameConstants.ROWS - 2;
             curVertDir = true;
         }
 
-        spaces[curRow][curCol] = SpaceStatus.TRAP_DISALLOWED;
+        disallowTrap(curRow, curCol);
     }
 
-    private static void stepHorizontally() {
+    /* Take a step right or straight.
+     * keepInBudget: True to only go straight when the path can still end within MAX_PATH_STEPS spaces.
+     */
+    private void stepHorizontally(Random rand, boolean keepInBudget) {
         int dirNumber = rand.nextInt(100);  // Number that will help determine probability that direction will change in next step.
 
         // Choose the direction
         switch(curHorizDir) {
             case RIGHT:
                 rightSteps++;
-                if((rightSteps < 5 && dirNumber < 27)
+                if(((rightSteps < 5 && dirNumber < 27)
                         || dirNumber < 50
-                        || curCol == Game.COLS - 1) {
+                        || curCol == GameConstants.COLS - 1)
+                        && (!keepInBudget || canGoStraight())) {
                     curHorizDir = HorizDir.STRAIGHT;
                     rightSteps = 0;
                 }
@@ -142,7 +206,8 @@ public class TrapCreator {
                 if ((straightSteps < 3 && dirNumber < 18)
                         || dirNumber < 37
                         || straightSteps >= 5
-                        || curCol == 0) {
+                        || curCol == 0
+                        || (keepInBudget && !canGoStraight())) {
                     curHorizDir = HorizDir.RIGHT;
                     straightSteps = 0;
                 }
@@ -153,7 +218,7 @@ public class TrapCreator {
         // Move in the chosen direction
         if(curHorizDir == HorizDir.RIGHT)
             curCol++;
-        spaces[curRow][curCol] = SpaceStatus.TRAP_DISALLOWED;
+        disallowTrap(curRow, curCol);
     }
 
     // Get the number of traps for this level.
@@ -174,54 +239,11 @@ public class TrapCreator {
         return nTraps;
     }
 
-    // Get the number of spaces where traps are disallowed.
-    private static int getInvalidSpacesCount() {
-        int nInvalidSpaces = 0;
-        for(SpaceStatus[] row : spaces) {
-            for(SpaceStatus status : row) {
-                if(status == SpaceStatus.TRAP_DISALLOWED)
-                    nInvalidSpaces++;
-            }
-        }
-
-        return nInvalidSpaces;
-    }
-
-    // Create the final traps according to the current list of spaces.
-    private static ArrayList<Trap> createFinalTraps() {
-        ArrayList<Trap> traps = new ArrayList<>();
-
-        for(int i = 0; i < Game.ROWS; i++) {
-            for(int j = 0; j < Game.COLS; j++) {
-                if(spaces[i][j] == SpaceStatus.HAS_TRAP) {
-                    Trap trap = new Trap(GamePanel.trapImage, Game.TRAP_HEIGHT);
-                    trap.placeOnGrid(i, j);
-                    traps.add(trap);
-                }
-            }
-        }
-
-        return traps;
-    }
-
-    // For testing!!!!!!!!!
-    private static void printPath(boolean showTraps) {
-        String p = "";
-        for(int i = 0; i < Game.ROWS; i++) {
-            p += "|";
-            for(int j = 0; j < Game.COLS; j++) {
-                if(j > 0)
-                    p += " ";
-                switch(spaces[i][j]) {
-                    case TRAP_ALLOWED:  p += " ";   break;
-                    case TRAP_DISALLOWED:   p += "X";   break;
-                    case HAS_TRAP:  p += (showTraps)? "O" : " ";   break;
-                    default:    break;
-                }
-            }
-            p += "|\n";
-        }
-        System.out.println(p);
+    /* Get the difficulty (see PathSolver.getDifficulty()) that the given level should be closest to.
+     * Rises quickly over the first levels, then levels off at HARDEST_DIFFICULTY.
+     */
+    private static double getTargetDifficulty(int levelId) {
+        return HARDEST_DIFFICULTY - (HARDEST_DIFFICULTY - EASIEST_DIFFICULTY) * Math.exp(-(levelId - 1) / DIFFICULTY_LEVELS);
     }
 
 }
@@ -0,0 +1,232 @@
+package com.alyssalerner.mouseytrap;
+
+import android.graphics.Bitmap;
+
+/** Everything needed to draw one update of the game, so that it can be drawn on a different thread
+ * than the one that runs the updates.  Positions are kept from both before and after the update so
+ * that drawing can still be interpolated.
+ * Only values and bitmaps that never change are kept, so drawing a snapshot never touches the objects
+ * that the updates change (each level's traps and cheese are copied in, and drawn with a LayerCache).
+ */
+public class WorldSnapshot {
+    private static final int START_CAPACITY = 64;   // Number of sprites to make room for at first.
+
+    private long updateTime;    // System.nanoTime() when this snapshot was taken.
+
+    private double bgPxOffset;      // Background's offset in pixels
+    private double bgPxOffsetDx;    // Amount the background moved during the update
+
+    // Levels (the current one, then the one being loaded), each drawn as one layer of sprites
+    private int nLevels;
+    private long[] layerVersions = new long[2];     // Changes whenever a level's layer changes (see Level)
+    private int[] layerStarts = new int[3];         // Index of each level's first layer sprite, then the end of the last one
+    private double[] prevLevelPxOffsets = new double[2];
+    private double[] levelPxOffsets = new double[2];
+
+    // The sprites of the levels' layers, in pixels at offset 0
+    private Bitmap[] layerImages = new Bitmap[START_CAPACITY];
+    private int[] layerPxX = new int[START_CAPACITY];
+    private int[] layerPxY = new int[START_CAPACITY];
+
+    // Sprites, drawn in order on top of the levels
+    private int nSprites;
+    private Bitmap[] images = new Bitmap[START_CAPACITY];
+    private double[] prevPxX = new double[START_CAPACITY];
+    private double[] prevPxY = new double[START_CAPACITY];
+    private double[] pxX = new double[START_CAPACITY];
+    private double[] pxY = new double[START_CAPACITY];
+
+    private int[] phaseStarts = new int[FrameProfiler.Phase.values().length];  // Index of the first sprite added in each phase
+
+    private int score;
+    private int highScore;
+    private int timeLeft;
+
+    // Empty the snapshot so it can be refilled.
+    public void clear() {
+        // Don't keep old bitmaps from being garbage collected
+        for(int i = 0; i < nSprites; i++)
+            images[i] = null;
+        for(int i = 0; i < layerStarts[nLevels]; i++)
+            layerImages[i] = null;
+        nSprites = 0;
+        nLevels = 0;
+        layerStarts[0] = 0;
+    }
+
+    public void setUpdateTime(long updateTime) {
+        this.updateTime = updateTime;
+    }
+
+    public long getUpdateTime() {
+        return updateTime;
+    }
+
+    /* Set the background's position.
+     * pxOffset: The background's offset in pixels.
+     * pxOffsetDx: The amount the offset moved during the update.
+     */
+    public void setBackground(double pxOffset, double pxOffsetDx) {
+        bgPxOffset = pxOffset;
+        bgPxOffsetDx = pxOffsetDx;
+    }
+
+    // Get the background's offset in pixels, interpolation of the way between the last two updates.
+    public double getBackgroundPxOffset(double interpolation) {
+        return bgPxOffset - (1.0 - interpolation) * bgPxOffsetDx;
+    }
+
+    /* Add a level to draw, on top of the ones already added, then add its layer with addLayerSprite().
+     * layerVersion: Identifies the level's layer as it is now.
+     * prevPxOffset: The level's offset in pixels before the update.
+     * pxOffset: The level's offset in pixels after the update.
+     */
+    public void addLevel(long layerVersion, double prevPxOffset, double pxOffset) {
+        layerVersions[nLevels] = layerVersion;
+        prevLevelPxOffsets[nLevels] = prevPxOffset;
+        levelPxOffsets[nLevels] = pxOffset;
+        nLevels++;
+        layerStarts[nLevels] = layerStarts[nLevels - 1];
+    }
+
+    /* Add a sprite to the layer of the last level added.
+     * x, y: The sprite's position in pixels, at offset 0.
+     */
+    public void addLayerSprite(Bitmap image, int x, int y) {
+        int i = layerStarts[nLevels]++;
+        if(i == layerImages.length)
+            growLayers();
+        layerImages[i] = image;
+        layerPxX[i] = x;
+        layerPxY[i] = y;
+    }
+
+    public int getNLevels() {
+        return nLevels;
+    }
+
+    public long getLayerVersion(int level) {
+        return layerVersions[level];
+    }
+
+    // Get the index of a level's first layer sprite.
+    public int getLayerStart(int level) {
+        return layerStarts[level];
+    }
+
+    // Get the index after a level's last layer sprite.
+    public int getLayerEnd(int level) {
+        return layerStarts[level + 1];
+    }
+
+    public Bitmap getLayerImage(int sprite) {
+        return layerImages[sprite];
+    }
+
+    public int getLayerPxX(int sprite) {
+        return layerPxX[sprite];
+    }
+
+    public int getLayerPxY(int sprite) {
+        return layerPxY[sprite];
+    }
+
+    // Get the offset in pixels of a level, interpolation of the way between the last two updates.
+    public double getLevelPxOffset(int level, double interpolation) {
+        return prevLevelPxOffsets[level] + interpolation * (levelPxOffsets[level] - prevLevelPxOffsets[level]);
+    }
+
+    /* Add a sprite to draw, on top of the ones already added.
+     * image: The bitmap to draw.
+     * prevX, prevY: Pixel position before the update.
+     * x, y: Pixel position after the update.
+     */
+    public void addSprite(Bitmap image, double prevX, double prevY, double x, double y) {
+        if(nSprites == images.length)
+            grow();
+        images[nSprites] = image;
+        prevPxX[nSprites] = prevX;
+        prevPxY[nSprites] = prevY;
+        pxX[nSprites] = x;
+        pxY[nSprites] = y;
+        nSprites++;
+    }
+
+    // Mark that the sprites added from now on belong to the given phase, for profiling.
+    public void startPhase(FrameProfiler.Phase phase) {
+        phaseStarts[phase.ordinal()] = nSprites;
+    }
+
+    // Get the index of the first sprite added in the given phase.
+    public int getPhaseStart(FrameProfiler.Phase phase) {
+        return phaseStarts[phase.ordinal()];
+    }
+
+    public int getNSprites() {
+        return nSprites;
+    }
+
+    public Bitmap getImage(int sprite) {
+        return images[sprite];
+    }
+
+    // Get the pixel x position of a sprite, interpolation of the way between the last two updates.
+    public double getPxX(int sprite, double interpolation) {
+        return prevPxX[sprite] + interpolation * (pxX[sprite] - prevPxX[sprite]);
+    }
+
+    // Get the pixel y position of a sprite, interpolation of the way between the last two updates.
+    public double getPxY(int sprite, double interpolation) {
+        return prevPxY[sprite] + interpolation * (pxY[sprite] - prevPxY[sprite]);
+    }
+
+    public void setOverlay(int score, int highScore, int timeLeft) {
+        this.score = score;
+        this.highScore = highScore;
+        this.timeLeft = timeLeft;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getHighScore() {
+        return highScore;
+    }
+
+    public int getTimeLeft() {
+        return timeLeft;
+    }
+
+    // Make room for more sprites.
+    private void grow() {
+        int capacity = images.length * 2;
+        Bitmap[] newImages = new Bitmap[capacity];
+        System.arraycopy(images, 0, newImages, 0, nSprites);
+        images = newImages;
+        prevPxX = copyOf(prevPxX, capacity);
+        prevPxY = copyOf(prevPxY, capacity);
+        pxX = copyOf(pxX, capacity);
+        pxY = copyOf(pxY, capacity);
+    }
+
+    // Make room for more layer sprites.
+    private void growLayers() {
+        int n = layerImages.length;
+        Bitmap[] newImages = new Bitmap[n * 2];
+        int[] newX = new int[n * 2];
+        int[] newY = new int[n * 2];
+        System.arraycopy(layerImages, 0, newImages, 0, n);
+        System.arraycopy(layerPxX, 0, newX, 0, n);
+        System.arraycopy(layerPxY, 0, newY, 0, n);
+        layerImages = newImages;
+        layerPxX = newX;
+        layerPxY = newY;
+    }
+
+    private double[] copyOf(double[] array, int capacity) {
+        double[] copy = new double[capacity];
+        System.arraycopy(array, 0, copy, 0, nSprites);
+        return copy;
+    }
+}
@@ -0,0 +1,100 @@
+package com.alyssalerner.mouseytrap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/** Checks CheesePlacer's exact placement against a brute-force scan of every spot on real level layouts.
+ */
+public class CheesePlacerTest {
+    private static final int X_MIN = GameConstants.SAFE_SPACE_WIDTH;
+    private static final int X_MAX = GameConstants.BASE_WIDTH - GameConstants.PLAYER_HEIGHT - GameConstants.SAFE_SPACE_WIDTH;
+    private static final int Y_MAX = GameConstants.BASE_HEIGHT - GameConstants.PLAYER_HEIGHT;
+    private static final int WIDTH = GameConstants.CHEESE_HEIGHT;
+    private static final int HEIGHT = GameConstants.CHEESE_HEIGHT;
+
+    // Gives a chosen number from nextInt(), and remembers the bound it was asked for.
+    private static class FixedRandom extends Random {
+        private static final long serialVersionUID = 1L;
+
+        int value;
+        int bound = -1;
+
+        @Override
+        public int nextInt(int bound) {
+            this.bound = bound;
+            return value;
+        }
+    }
+
+    @Test
+    public void exactPlacementMatchesBruteForce() throws Exception {
+        LevelGenerator generator = new LevelGenerator(1, GameConstants.TRAP_HEIGHT, GameConstants.CHEESE_HEIGHT);
+        for(int levelId = 1; levelId <= 500; levelId += 13)
+            checkLayout(generator.generate(levelId));
+    }
+
+    @Test
+    public void noRoomGivesNull() throws Exception {
+        ArrayList<int[]> obstacles = new ArrayList<>();
+        obstacles.add(new int[] {0, 0, GameConstants.BASE_WIDTH, GameConstants.BASE_HEIGHT});
+        assertNull(CheesePlacer.placeInFreeSpot(obstacles, WIDTH, HEIGHT, new Random(1)));
+        assertNull(CheesePlacer.placeAtRandomSpot(obstacles, WIDTH, HEIGHT, new Random(1)));
+    }
+
+    /* Check that the placer counts the same free spots as a scan of every spot, and that the nth spot it
+     * chooses (for a few n) is the nth free spot in the scan, going by rows.
+     */
+    private void checkLayout(LevelLayout layout) {
+        ArrayList<int[]> obstacles = getObstacles(layout);
+        FixedRandom rand = new FixedRandom();
+        CheesePlacer.placeInFreeSpot(obstacles, WIDTH, HEIGHT, rand);
+        int totalFree = rand.bound;
+        assertTrue("Level " + layout.getId() + " has free spots", totalFree > 0);
+
+        int[] chosen = {0, 1, totalFree / 3, totalFree / 2, totalFree - 2, totalFree - 1};
+        int[][] expected = new int[chosen.length][];
+        int nFree = 0;
+        for(int yPos = 0; yPos < Y_MAX; yPos++) {
+            for(int xPos = X_MIN; xPos < X_MAX; xPos++) {
+                if(CheesePlacer.collidesWithAny(xPos, yPos, WIDTH, HEIGHT, obstacles))
+                    continue;
+                for(int i = 0; i < chosen.length; i++) {
+                    if(chosen[i] == nFree)
+                        expected[i] = new int[] {xPos, yPos};
+                }
+                nFree++;
+            }
+        }
+        assertEquals("Free spots in level " + layout.getId(), nFree, totalFree);
+
+        for(int i = 0; i < chosen.length; i++) {
+            rand.value = chosen[i];
+            assertArrayEquals("Spot " + chosen[i] + " in level " + layout.getId(),
+                    expected[i], CheesePlacer.placeInFreeSpot(obstacles, WIDTH, HEIGHT, rand));
+        }
+    }
+
+    // Get the bounds of the layout's traps and cheese, the same way LevelGenerator does.
+    private ArrayList<int[]> getObstacles(LevelLayout layout) {
+        ArrayList<int[]> obstacles = new ArrayList<>();
+        for(int row = 0; row < GameConstants.ROWS; row++) {
+            for(int col = 0; col < GameConstants.COLS; col++) {
+                if(!layout.hasTrap(row, col))
+                    continue;
+                int left = (int)Board.getCenteredX(col, GameConstants.TRAP_HEIGHT);
+                int top = (int)Board.getCenteredY(row, GameConstants.TRAP_HEIGHT);
+                obstacles.add(new int[] {left, top, left + GameConstants.TRAP_HEIGHT, top + GameConstants.TRAP_HEIGHT});
+            }
+        }
+        for(int i = 0; i < layout.getNCheeses(); i++) {
+            int left = layout.getCheeseX(i);
+            int top = layout.getCheeseY(i);
+            obstacles.add(new int[] {left, top, left + WIDTH, top + HEIGHT});
+        }
+        return obstacles;
+    }
+}
@@ -0,0 +1,118 @@
+package com.alyssalerner.mouseytrap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Checks InputQueue's ring buffer on one thread, then with a real producer and consumer thread.
+ */
+public class InputQueueTest {
+    private static final Simulation.Input[] INPUTS = Simulation.Input.values();
+
+    @Test
+    public void emptyQueueGivesNull() throws Exception {
+        InputQueue queue = new InputQueue();
+        assertNull(queue.poll());
+        assertTrue(queue.offer(Simulation.Input.LEFT, 5));
+        assertEquals(Simulation.Input.LEFT, queue.poll());
+        assertEquals(5, queue.getPolledTime());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void wrapsAroundInOrder() throws Exception {
+        // Keep the queue partly full while going round the buffer several times
+        InputQueue queue = new InputQueue();
+        int nOffered = 0;
+        int nPolled = 0;
+        for(int round = 0; round < 5 * InputQueue.CAPACITY; round++) {
+            for(int i = 0; i < 3; i++) {
+                assertTrue(queue.offer(INPUTS[nOffered % INPUTS.length], nOffered));
+                nOffered++;
+            }
+            for(int i = 0; i < 2; i++) {
+                assertEquals(INPUTS[nPolled % INPUTS.length], queue.poll());
+                assertEquals(nPolled, queue.getPolledTime());
+                nPolled++;
+            }
+            if(nOffered - nPolled > InputQueue.CAPACITY - 3) {
+                while(queue.poll() != null)
+                    nPolled++;
+            }
+        }
+        assertEquals(0, queue.getNDropped());
+    }
+
+    @Test
+    public void fullQueueDropsNewInput() throws Exception {
+        InputQueue queue = new InputQueue();
+        for(int i = 0; i < InputQueue.CAPACITY; i++)
+            assertTrue(queue.offer(INPUTS[i % INPUTS.length], i));
+        assertFalse(queue.offer(Simulation.Input.STOP, -1));
+        assertFalse(queue.offer(Simulation.Input.STOP, -2));
+        assertEquals(2, queue.getNDropped());
+
+        // What's in the queue is untouched, and there's room again once something is taken
+        assertEquals(INPUTS[0], queue.poll());
+        assertEquals(0, queue.getPolledTime());
+        assertTrue(queue.offer(Simulation.Input.STOP, InputQueue.CAPACITY));
+        assertFalse(queue.offer(Simulation.Input.STOP, -3));
+        for(int i = 1; i <= InputQueue.CAPACITY; i++) {
+            assertEquals(i == InputQueue.CAPACITY? Simulation.Input.STOP : INPUTS[i % INPUTS.length], queue.poll());
+            assertEquals(i, queue.getPolledTime());
+        }
+        assertNull(queue.poll());
+        assertEquals(3, queue.getNDropped());
+    }
+
+    @Test
+    public void clearEmptiesQueue() throws Exception {
+        InputQueue queue = new InputQueue();
+        for(int i = 0; i < InputQueue.CAPACITY; i++)
+            queue.offer(Simulation.Input.LEFT, i);
+        queue.clear();
+        assertNull(queue.poll());
+        for(int i = 0; i < InputQueue.CAPACITY; i++)
+            assertTrue(queue.offer(Simulation.Input.RIGHT, i));
+        assertEquals(Simulation.Input.RIGHT, queue.poll());
+    }
+
+    @Test
+    public void producerAndConsumerThreads() throws Exception {
+        final int nInputs = 200000;
+        final InputQueue queue = new InputQueue();
+        final int[] nDropped = new int[1];
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                for(int i = 0; i < nInputs; i++) {
+                    queue.offer(INPUTS[i % INPUTS.length], i);
+                    if(i % 16 == 0)
+                        Thread.yield();     // Let the consumer catch up sometimes, but not always
+                }
+                nDropped[0] = queue.getNDropped();
+            }
+        };
+        producer.start();
+
+        // Every input must arrive whole and in order, with only the dropped ones missing
+        int nReceived = 0;
+        long lastTime = -1;
+        while(true) {
+            boolean done = !producer.isAlive();
+            Simulation.Input input;
+            while((input = queue.poll()) != null) {
+                long time = queue.getPolledTime();
+                assertTrue(time > lastTime);
+                assertEquals(INPUTS[(int)(time % INPUTS.length)], input);
+                lastTime = time;
+                nReceived++;
+            }
+            if(done)
+                break;
+            Thread.yield();
+        }
+        producer.join();
+        assertEquals(nInputs, nReceived + nDropped[0]);
+    }
+}
@@ -0,0 +1,61 @@
+package com.alyssalerner.mouseytrap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Checks that LevelGenerator gives the same levels for the same seed, whatever order they're made in.
+ */
+public class LevelGeneratorTest {
+    private static final int N_LEVELS = 200;
+
+    private static LevelGenerator createGenerator(long seed) {
+        return new LevelGenerator(seed, GameConstants.TRAP_HEIGHT, GameConstants.CHEESE_HEIGHT);
+    }
+
+    @Test
+    public void sameSeedGivesSameLevelsInAnyOrder() throws Exception {
+        LevelLayout[] inOrder = new LevelLayout[N_LEVELS + 1];
+        LevelGenerator generator = createGenerator(42);
+        for(int levelId = 1; levelId <= N_LEVELS; levelId++)
+            inOrder[levelId] = generator.generate(levelId);
+
+        // Backwards, with a new generator
+        LevelGenerator backwards = createGenerator(42);
+        for(int levelId = N_LEVELS; levelId >= 1; levelId--)
+            assertEquals("Level " + levelId, inOrder[levelId], backwards.generate(levelId));
+
+        // Jumping around, and regenerating levels already made
+        for(int i = 0; i < N_LEVELS; i++) {
+            int levelId = 1 + (i * 37) % N_LEVELS;
+            assertEquals("Level " + levelId, inOrder[levelId], generator.generate(levelId));
+        }
+    }
+
+    @Test
+    public void differentSeedsGiveDifferentLevels() throws Exception {
+        LevelGenerator first = createGenerator(1);
+        LevelGenerator second = createGenerator(2);
+        int nSame = 0;
+        for(int levelId = 1; levelId <= N_LEVELS; levelId++) {
+            if(first.generate(levelId).equals(second.generate(levelId)))
+                nSame++;
+        }
+        assertTrue(nSame < N_LEVELS / 10);
+    }
+
+    @Test
+    public void layoutsAreValid() throws Exception {
+        LevelGenerator generator = createGenerator(7);
+        PathSolver solver = new PathSolver();
+        long gridMask = (1L << (GameConstants.ROWS * GameConstants.COLS)) - 1;
+        for(int levelId = 1; levelId <= N_LEVELS; levelId++) {
+            LevelLayout layout = generator.generate(levelId);
+            assertEquals(levelId, layout.getId());
+            assertNotEquals("Level " + levelId + " has traps", 0L, layout.getTrapMask());
+            assertEquals(0L, layout.getTrapMask() & ~gridMask);
+            assertTrue("Level " + levelId + " is solvable", solver.getDifficulty(layout.getTrapMask()) != PathSolver.UNSOLVABLE);
+            assertTrue(layout.getNCheeses() <= LevelLayout.MAX_CHEESES);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.alyssalerner.mouseytrap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Checks that LevelLayout's packed trap mask and cheese positions read back what was put in.
+ */
+public class LevelLayoutTest {
+    @Test
+    public void trapMaskRoundTrips() throws Exception {
+        for(int row = 0; row < GameConstants.ROWS; row++) {
+            for(int col = 0; col < GameConstants.COLS; col++) {
+                long bit = LevelLayout.getTrapBit(row, col);
+                assertEquals(1L << (row * GameConstants.COLS + col), bit);
+
+                LevelLayout layout = new LevelLayout(1, bit, 0);
+                for(int r = 0; r < GameConstants.ROWS; r++) {
+                    for(int c = 0; c < GameConstants.COLS; c++)
+                        assertEquals(r == row && c == col, layout.hasTrap(r, c));
+                }
+            }
+        }
+
+        // Every space fits in the 48 bits below the cheese count
+        long full = (1L << (GameConstants.ROWS * GameConstants.COLS)) - 1;
+        assertEquals(48, GameConstants.ROWS * GameConstants.COLS);
+        assertEquals(full, new LevelLayout(1, full, 0).getTrapMask());
+    }
+
+    @Test
+    public void cheesesRoundTrip() throws Exception {
+        int[][] positions = {{0, 0}, {4095, 4095}, {1234, 567}, {4095, 0}, {0, 4095}};
+        for(int[] first : positions) {
+            for(int[] second : positions) {
+                long cheeses = LevelLayout.addCheese(0, first[0], first[1]);
+                LevelLayout layout = new LevelLayout(1, 0, cheeses);
+                assertEquals(1, layout.getNCheeses());
+                assertEquals(first[0], layout.getCheeseX(0));
+                assertEquals(first[1], layout.getCheeseY(0));
+
+                cheeses = LevelLayout.addCheese(cheeses, second[0], second[1]);
+                layout = new LevelLayout(1, 0, cheeses);
+                assertEquals(2, layout.getNCheeses());
+                assertEquals(first[0], layout.getCheeseX(0));
+                assertEquals(first[1], layout.getCheeseY(0));
+                assertEquals(second[0], layout.getCheeseX(1));
+                assertEquals(second[1], layout.getCheeseY(1));
+            }
+        }
+    }
+
+    @Test
+    public void cheeseCountIsInBits48Up() throws Exception {
+        assertEquals(0, new LevelLayout(1, 0, 0).getNCheeses());
+
+        long one = LevelLayout.addCheese(0, 4095, 4095);
+        assertEquals(1L, one >>> 48);
+        assertEquals((1L << 24) - 1, one & ((1L << 48) - 1));
+
+        long two = LevelLayout.addCheese(one, 4095, 4095);
+        assertEquals(2L, two >>> 48);
+        assertEquals((1L << 48) - 1, two & ((1L << 48) - 1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void tooManyCheesesThrows() throws Exception {
+        long cheeses = 0;
+        for(int i = 0; i <= LevelLayout.MAX_CHEESES; i++)
+            cheeses = LevelLayout.addCheese(cheeses, i, i);
+    }
+
+    @Test
+    public void equalsAndHashCode() throws Exception {
+        long cheeses = LevelLayout.addCheese(0, 300, 400);
+        LevelLayout layout = new LevelLayout(7, 0x0F0F0F0F0F0FL, cheeses);
+        LevelLayout same = new LevelLayout(7, 0x0F0F0F0F0F0FL, cheeses);
+        assertEquals(layout, same);
+        assertEquals(layout.hashCode(), same.hashCode());
+
+        assertNotEquals(layout, new LevelLayout(8, 0x0F0F0F0F0F0FL, cheeses));
+        assertNotEquals(layout, new LevelLayout(7, 0x0F0F0F0F0F0EL, cheeses));
+        assertNotEquals(layout, new LevelLayout(7, 0x0F0F0F0F0F0FL, LevelLayout.addCheese(0, 300, 401)));
+        assertNotEquals(layout, null);
+        assertNotEquals(layout, "layout");
+    }
+}
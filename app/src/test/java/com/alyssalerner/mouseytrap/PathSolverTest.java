@@ -0,0 +1,91 @@
+package com.alyssalerner.mouseytrap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Checks PathSolver on small hand-built layouts, where the quickest way through can be worked out by hand.
+ */
+public class PathSolverTest {
+    private static final int LAST_ROW = GameConstants.ROWS - 1;
+
+    // Get a mask with traps in the given rows of a col.
+    private static long getColMask(int col, int firstRow, int lastRow) {
+        long mask = 0;
+        for(int row = firstRow; row <= lastRow; row++)
+            mask |= LevelLayout.getTrapBit(row, col);
+        return mask;
+    }
+
+    @Test
+    public void emptyLayoutIsStraightAcross() throws Exception {
+        // One col per step, from the start safe space (col -1) to the exit (col COLS)
+        PathSolver solver = new PathSolver();
+        for(int row = 0; row <= LAST_ROW; row++) {
+            assertEquals(GameConstants.COLS + 1, solver.solve(0, row, true));
+            assertEquals(GameConstants.COLS + 1, solver.solve(0, row, false));
+        }
+        assertEquals(GameConstants.COLS + 1, solver.getDifficulty(0), 0);
+    }
+
+    @Test
+    public void fullColIsUnsolvable() throws Exception {
+        PathSolver solver = new PathSolver();
+        for(int col = 0; col < GameConstants.COLS; col++) {
+            long mask = getColMask(col, 0, LAST_ROW);
+            assertEquals(PathSolver.UNSOLVABLE, solver.solve(mask, 0, false));
+            assertEquals(PathSolver.UNSOLVABLE, solver.solve(mask, LAST_ROW, true));
+            assertEquals(PathSolver.UNSOLVABLE, solver.getDifficulty(mask), 0);
+        }
+    }
+
+    @Test
+    public void singleGapIsUnsolvable() throws Exception {
+        // The mouse can't stop in the gap: its next move is always up or down into the col's traps
+        PathSolver solver = new PathSolver();
+        long mask = getColMask(3, 0, LAST_ROW - 1);
+        assertEquals(PathSolver.UNSOLVABLE, solver.getDifficulty(mask), 0);
+    }
+
+    @Test
+    public void gapAtBottomNeedsTheWallBounce() throws Exception {
+        // Col 0 is only open in the bottom two rows, so the mouse has to be moving down when it gets into col 0,
+        // and then bounce off the bottom wall to get out of it.
+        PathSolver solver = new PathSolver();
+        long mask = getColMask(0, 0, LAST_ROW - 2);
+
+        // Into col 0 on the first step, then straight across
+        assertEquals(9, solver.solve(mask, LAST_ROW - 2, false));
+        assertEquals(9, solver.solve(mask, LAST_ROW - 1, false));   // Into the bottom row, then bounces out
+
+        // Down the safe space first
+        assertEquals(12, solver.solve(mask, 0, false));
+        assertEquals(12, solver.solve(mask, 0, true));              // Bounces off the top wall first
+        assertEquals(13, solver.solve(mask, 1, true));
+
+        // Moving up in the open rows would hit the traps, so all the way up the safe space and back down
+        assertEquals(17, solver.solve(mask, LAST_ROW, true));
+        assertEquals(17, solver.solve(mask, LAST_ROW, false));
+    }
+
+    @Test
+    public void stepsBounceOffTheWalls() throws Exception {
+        PathSolver solver = new PathSolver();
+        assertEquals(0, solver.getSteps(0, 2, 2, true, 2, 2));
+        assertEquals(1, solver.getSteps(0, 0, 0, true, 1, 0));
+        assertEquals(2, solver.getSteps(0, 0, 0, true, 2, 0));
+        assertEquals(1, solver.getSteps(0, LAST_ROW, 4, false, LAST_ROW - 1, 4));
+        assertEquals(1, solver.getSteps(0, LAST_ROW, 4, false, LAST_ROW - 1, 5));
+
+        // Going up from row 1, the mouse has to come back down through row 0
+        assertEquals(3, solver.getSteps(0, 1, 0, true, 2, 0));
+        assertEquals(PathSolver.UNSOLVABLE, solver.getSteps(LevelLayout.getTrapBit(0, 0), 1, 0, true, 2, 0));
+    }
+
+    @Test
+    public void trappedTargetIsUnsolvable() throws Exception {
+        PathSolver solver = new PathSolver();
+        long mask = LevelLayout.getTrapBit(3, 4);
+        assertEquals(PathSolver.UNSOLVABLE, solver.getSteps(mask, 0, -1, false, 3, 4));
+    }
+}
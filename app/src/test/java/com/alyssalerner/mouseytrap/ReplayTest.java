@@ -0,0 +1,180 @@
+package com.alyssalerner.mouseytrap;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/** Checks the replay format: that ReplayRecorder writes what it documents, and that ReplayPlayer reads it back
+ * (and rejects anything else).
+ */
+public class ReplayTest {
+    private static final int HEADER_SIZE = 4 + 1 + 8 + 2 * 3;
+
+    // Gives RIGHT and STOP in turns, with longer and longer gaps between them, recording each one.
+    private static class RecordedInput implements Simulation.Controller {
+        private ReplayRecorder recorder;
+        private long nextTick = 1;
+        private long gap = 1;
+        private boolean right = true;
+
+        RecordedInput(ReplayRecorder recorder) {
+            this.recorder = recorder;
+        }
+
+        @Override
+        public Simulation.Input getInput(Simulation simulation) {
+            long tick = simulation.getTicks() + 1;
+            if(tick < nextTick)
+                return Simulation.Input.NONE;
+
+            Simulation.Input input = right? Simulation.Input.RIGHT : Simulation.Input.STOP;
+            recorder.record(tick, input);
+            right = !right;
+            nextTick = tick + gap;
+            gap = gap * 2 + 1;
+            return input;
+        }
+    }
+
+    private static ReplayPlayer read(byte[] bytes) throws IOException {
+        return ReplayPlayer.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void writesDocumentedFormat() throws Exception {
+        ReplayRecorder recorder = new ReplayRecorder(0x123456789L, 100, 200, 300);
+        recorder.record(1, Simulation.Input.LEFT);          // (1 << 2) | 1
+        recorder.record(33, Simulation.Input.RIGHT);        // (32 << 2) | 2 = 130, in 2 bytes
+        recorder.record(33, Simulation.Input.NONE);         // Not recorded
+        recorder.record(33, Simulation.Input.STOP);         // (0 << 2) | 3
+        recorder.record(33 + 4096, Simulation.Input.LEFT);  // (4096 << 2) | 1 = 16385, in 3 bytes
+        recorder.finish(5000, 300, 70000);                  // (871 << 2) | 0 = 3484, then 300 and 70000
+        recorder.record(6000, Simulation.Input.LEFT);       // Not recorded once finished
+        assertEquals(4, recorder.getNEvents());
+        assertTrue(recorder.isFinished());
+
+        byte[] bytes = recorder.toByteArray();
+        DataInputStream header = new DataInputStream(new ByteArrayInputStream(bytes));
+        assertEquals(ReplayRecorder.MAGIC, header.readInt());
+        assertEquals(ReplayRecorder.VERSION, header.readUnsignedByte());
+        assertEquals(0x123456789L, header.readLong());
+        assertEquals(100, header.readShort());
+        assertEquals(200, header.readShort());
+        assertEquals(300, header.readShort());
+
+        byte[] records = new byte[bytes.length - HEADER_SIZE];
+        System.arraycopy(bytes, HEADER_SIZE, records, 0, records.length);
+        assertArrayEquals(new byte[] {
+                0x05,
+                (byte)0x82, 0x01,
+                0x03,
+                (byte)0x81, (byte)0x80, 0x01,
+                (byte)0x9C, 0x1B,
+                (byte)0xAC, 0x02,
+                (byte)0xF0, (byte)0xA2, 0x04}, records);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.writeTo(out);
+        assertArrayEquals(bytes, out.toByteArray());
+
+        ReplayPlayer replay = read(bytes);
+        assertEquals(0x123456789L, replay.getSeed());
+        assertEquals(4, replay.getNEvents());
+        assertEquals(5000, replay.getTicks());
+        assertEquals(300, replay.getFinalLevelId());
+        assertEquals(70000, replay.getFinalScore());
+    }
+
+    @Test
+    public void recordedGamePlaysBackTheSame() throws Exception {
+        LevelGenerator generator = new LevelGenerator(99, GameConstants.TRAP_HEIGHT, GameConstants.CHEESE_HEIGHT);
+        Simulation simulation = new Simulation(generator, GameConstants.PLAYER_HEIGHT, GameConstants.TRAP_HEIGHT,
+                GameConstants.CHEESE_HEIGHT);
+        ReplayRecorder recorder = new ReplayRecorder(99, GameConstants.PLAYER_HEIGHT, GameConstants.TRAP_HEIGHT,
+                GameConstants.CHEESE_HEIGHT);
+        simulation.run(new RecordedInput(recorder), 1000000);
+        assertTrue(simulation.isOver());
+        assertTrue("Gaps long enough to take more than one byte", recorder.getNEvents() > 6);
+        recorder.finish(simulation.getTicks(), simulation.getLevelId(), simulation.getScore());
+
+        ReplayPlayer replay = read(recorder.toByteArray());
+        assertEquals(recorder.getNEvents(), replay.getNEvents());
+        assertEquals(simulation.getTicks(), replay.getTicks());
+
+        Simulation played = replay.play();
+        assertTrue(replay.matches(played));
+        assertEquals(simulation.getScore(), played.getScore());
+
+        // Playing it again in the same simulation gives the same game
+        replay.play(played);
+        assertTrue(replay.matches(played));
+    }
+
+    @Test
+    public void truncatedReplayThrows() throws Exception {
+        ReplayRecorder recorder = new ReplayRecorder(5, 100, 200, 300);
+        recorder.record(1, Simulation.Input.RIGHT);
+        recorder.record(100000, Simulation.Input.LEFT);
+        recorder.finish(200000, 12, 34567);
+        byte[] bytes = recorder.toByteArray();
+        read(bytes);
+
+        for(int length = 0; length < bytes.length; length++) {
+            byte[] truncated = new byte[length];
+            System.arraycopy(bytes, 0, truncated, 0, length);
+            try {
+                read(truncated);
+                fail("Read a replay truncated to " + length + " bytes");
+            } catch(EOFException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void badMagicThrows() throws Exception {
+        byte[] bytes = new ReplayRecorder(5, 100, 200, 300).toByteArray();
+        bytes[0] ^= 1;
+        try {
+            read(bytes);
+            fail("Read a replay with the wrong magic number");
+        } catch(IOException e) {
+            assertEquals("Not a replay", e.getMessage());
+        }
+    }
+
+    @Test
+    public void badVersionThrows() throws Exception {
+        ReplayRecorder recorder = new ReplayRecorder(5, 100, 200, 300);
+        recorder.finish(10, 1, 0);
+        byte[] bytes = recorder.toByteArray();
+        bytes[4] = (byte)(ReplayRecorder.VERSION + 1);
+        try {
+            read(bytes);
+            fail("Read a replay with an unknown version");
+        } catch(IOException e) {
+            assertEquals("Unsupported replay version " + (ReplayRecorder.VERSION + 1), e.getMessage());
+        }
+    }
+
+    @Test
+    public void overlongNumberThrows() throws Exception {
+        byte[] header = new ReplayRecorder(5, 100, 200, 300).toByteArray();
+        byte[] bytes = new byte[header.length + 10];
+        System.arraycopy(header, 0, bytes, 0, header.length);
+        for(int i = header.length; i < bytes.length; i++)
+            bytes[i] = (byte)0xFF;  // Every byte says there's another one after it
+        try {
+            read(bytes);
+            fail("Read a number longer than 64 bits");
+        } catch(IOException e) {
+            assertEquals("Malformed replay", e.getMessage());
+        }
+    }
+}
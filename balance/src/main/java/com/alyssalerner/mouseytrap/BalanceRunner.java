@@ -0,0 +1,83 @@
+package com.alyssalerner.mouseytrap;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/** Plays a batch of seeded games with the GreedyBot on a fork/join pool and prints how far they got.
+ * Every game is generated from its own seed (derived from the batch seed), and each thread has its own
+ * simulation, bot and random numbers, so the results only depend on the arguments.
+ * The trap and cheese images are square, so their widths are the same as their heights.
+ * Usage: BalanceRunner [runs] [seed] [threads]
+ */
+public class BalanceRunner {
+    private static final int DEFAULT_RUNS = 10000;
+    private static final long MAX_TICKS = 10000000;     // Longest a single game can run, in case the bot never loses
+    private static final int GAMES_PER_TASK = 64;       // Games to play in one task before splitting isn't worth it
+
+    public static void main(String[] args) {
+        int runs = (args.length > 0)? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        long seed = (args.length > 1)? Long.parseLong(args[1]) : System.nanoTime();
+        int threads = (args.length > 2)? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Playing " + runs + " games with seed " + seed + " on " + threads + " threads");
+        long startTime = System.nanoTime();
+        BalanceStats stats = new ForkJoinPool(threads).invoke(new Games(seed, 0, runs));
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.out.println(String.format("Took %.1fs (%.0f updates per second)", seconds, stats.getTotalTicks() / seconds));
+        System.out.println();
+        stats.print(System.out);
+    }
+
+    /* Play one game.
+     * seed: The seed to generate the game's levels from.
+     * stats: Where to record the game.
+     */
+    static void playGame(long seed, BalanceStats stats) {
+        LevelGenerator generator = new LevelGenerator(seed, GameConstants.TRAP_HEIGHT, GameConstants.CHEESE_HEIGHT);
+        Simulation simulation = new Simulation(generator, GameConstants.PLAYER_HEIGHT, GameConstants.TRAP_HEIGHT, GameConstants.CHEESE_HEIGHT);
+        GreedyBot bot = new GreedyBot();
+
+        int levelId = simulation.getLevelId();
+        stats.addLevelStart(levelId, simulation.getTimeLeft());
+        while(!simulation.isOver() && simulation.getTicks() < MAX_TICKS) {
+            simulation.update(bot.getInput(simulation));
+            if(simulation.getLevelId() != levelId) {
+                levelId = simulation.getLevelId();
+                stats.addLevelStart(levelId, simulation.getTimeLeft());
+            }
+        }
+        stats.addGame(levelId, simulation.getTicks());
+    }
+
+    // Plays games first to last - 1, splitting them in half until there are few enough to play on one thread.
+    private static class Games extends RecursiveTask<BalanceStats> {
+        private static final long serialVersionUID = 1L;
+
+        private long seed;
+        private int first, last;
+
+        Games(long seed, int first, int last) {
+            this.seed = seed;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected BalanceStats compute() {
+            if(last - first <= GAMES_PER_TASK) {
+                BalanceStats stats = new BalanceStats();
+                for(int game = first; game < last; game++)
+                    playGame(seed + game * 0x9E3779B97F4A7C15L, stats);
+                return stats;
+            }
+
+            int middle = (first + last) >>> 1;
+            Games firstHalf = new Games(seed, first, middle);
+            firstHalf.fork();
+            BalanceStats stats = new Games(seed, middle, last).compute();
+            stats.merge(firstHalf.join());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.alyssalerner.mouseytrap;
+
+import java.io.PrintStream;
+
+/** Totals from a batch of games: how far each one got and how much time was left as each level started.
+ * Each thread fills its own stats, which are then merged.
+ */
+public class BalanceStats {
+    public static final int MAX_LEVEL = 1000;      // Games that get further are counted as reaching this level
+    public static final int BRACKET_SIZE = 10;      // Levels per bracket of the time bank report
+
+    private long nGames;
+    private long totalTicks;
+    private long[] levelsReached = new long[MAX_LEVEL + 1];    // Number of games that ended on each level
+    private long[] bracketTime = new long[MAX_LEVEL / BRACKET_SIZE + 1];   // Total time left as levels in each bracket started
+    private long[] bracketStarts = new long[MAX_LEVEL / BRACKET_SIZE + 1]; // Number of levels started in each bracket
+
+    /* Record a level being started.
+     * timeLeft: The time left on the timer.
+     */
+    public void addLevelStart(int levelId, int timeLeft) {
+        int bracket = Math.min(levelId, MAX_LEVEL) / BRACKET_SIZE;
+        bracketTime[bracket] += timeLeft;
+        bracketStarts[bracket]++;
+    }
+
+    /* Record the end of a game.
+     * levelId: The level the game ended on.
+     * ticks: The number of updates the game lasted.
+     */
+    public void addGame(int levelId, long ticks) {
+        levelsReached[Math.min(levelId, MAX_LEVEL)]++;
+        nGames++;
+        totalTicks += ticks;
+    }
+
+    // Add the totals from other stats to these ones.
+    public void merge(BalanceStats other) {
+        nGames += other.nGames;
+        totalTicks += other.totalTicks;
+        for(int i = 0; i < levelsReached.length; i++)
+            levelsReached[i] += other.levelsReached[i];
+        for(int i = 0; i < bracketTime.length; i++) {
+            bracketTime[i] += other.bracketTime[i];
+            bracketStarts[i] += other.bracketStarts[i];
+        }
+    }
+
+    public long getNGames() {
+        return nGames;
+    }
+
+    public long getTotalTicks() {
+        return totalTicks;
+    }
+
+    // Print the distribution of levels reached, the survival curve and the time bank per bracket.
+    public void print(PrintStream out) {
+        out.println("Games: " + nGames + ", average length: " + (nGames > 0? totalTicks / nGames : 0) + " updates");
+
+        long maxCount = 0;
+        int lastLevel = 0;
+        for(int i = 0; i < levelsReached.length; i++) {
+            maxCount = Math.max(maxCount, levelsReached[i]);
+            if(levelsReached[i] > 0)
+                lastLevel = i;
+        }
+
+        out.println();
+        out.println("Level  Ended here   Survived to here");
+        long survivors = nGames;
+        for(int level = GameConstants.START_LEVEL; level <= lastLevel; level++) {
+            int barLength = (int)(40 * levelsReached[level] / Math.max(1, maxCount));
+            out.println(String.format("%5d  %10d   %6.2f%%  %s", level, levelsReached[level],
+                    100.0 * survivors / Math.max(1, nGames), repeat('#', barLength)));
+            survivors -= levelsReached[level];
+        }
+
+        out.println();
+        out.println("Levels     Average time left at start (of " + GameConstants.TOTAL_TIME + ")");
+        for(int bracket = 0; bracket < bracketStarts.length; bracket++) {
+            if(bracketStarts[bracket] == 0)
+                continue;
+            out.println(String.format("%4d-%-4d  %6.1f", bracket * BRACKET_SIZE, (bracket + 1) * BRACKET_SIZE - 1,
+                    1.0 * bracketTime[bracket] / bracketStarts[bracket]));
+        }
+    }
+
+    private static String repeat(char c, int n) {
+        StringBuilder builder = new StringBuilder(n);
+        for(int i = 0; i < n; i++)
+            builder.append(c);
+        return builder.toString();
+    }
+}
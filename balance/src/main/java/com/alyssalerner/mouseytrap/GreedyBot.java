@@ -0,0 +1,129 @@
+package com.alyssalerner.mouseytrap;
+
+/** Plays the game by heading for the nearest cheese left in the level, then the exit, along the quickest path
+ * found by a PathSolver.  It only decides what to do when the player moves into a new space, and holds that
+ * input until the next one, like a player who plans one space ahead.
+ * Each bot has its own solver, so use one per thread.
+ */
+public class GreedyBot implements Simulation.Controller {
+    private static final int CORNER_PENALTY = 2;     // Extra steps to count for a move past the corner of a trap
+
+    private PathSolver solver = new PathSolver();
+
+    // The state the last decision was made in
+    private int lastRow = -1, lastCol, lastTarget;
+    private boolean lastUp;
+    private int lastLevel;
+    private int skippedCheeses;     // Bit i is set if the bot reached cheese i's space without collecting it
+
+    @Override
+    public Simulation.Input getInput(Simulation simulation) {
+        if(simulation.getState() != Simulation.State.PLAYING)
+            return Simulation.Input.NONE;
+
+        PlayerBody player = simulation.getPlayer();
+        int row = clamp(Board.convertBaseYToRow(player.getY() + player.getHeight() / 2.0), 0, GameConstants.ROWS - 1);
+        int col = clamp(Board.convertBaseXToCol(player.getX() + player.getWidth() / 2.0), -1, GameConstants.COLS);
+        boolean up = !player.isMovingDown();
+        LevelLayout level = simulation.getLevel();
+        if(level.getId() != lastLevel)
+            skippedCheeses = 0;
+        int target = getTarget(simulation);
+
+        // The cheese isn't always centered in its space, so give up on one once its space is reached
+        if(target >= 0 && row == getCheeseRow(level, target) && col == getCheeseCol(level, target)) {
+            skippedCheeses |= 1 << target;
+            target = getTarget(simulation);
+        }
+
+        // Keep going the same way until something changes
+        if(row == lastRow && col == lastCol && up == lastUp && target == lastTarget && level.getId() == lastLevel)
+            return Simulation.Input.NONE;
+        lastRow = row;
+        lastCol = col;
+        lastUp = up;
+        lastTarget = target;
+        lastLevel = level.getId();
+
+        // Past the traps, but the next level only starts once the player is past SLIDE_THRESHOLD
+        if(target < 0 && col == GameConstants.COLS)
+            return Simulation.Input.RIGHT;
+
+        int targetRow = (target < 0)? 0 : getCheeseRow(level, target);
+        int targetCol = (target < 0)? GameConstants.COLS : getCheeseCol(level, target);
+        return chooseMove(level.getTrapMask(), row, col, up, targetRow, targetCol);
+    }
+
+    /* Choose whether to move right, left or neither for the next step, whichever gets to the target quickest
+     * (preferring right, then staying, when they're equal).
+     */
+    private Simulation.Input chooseMove(long trapMask, int row, int col, boolean up, int targetRow, int targetCol) {
+        // The next row, bouncing off the walls the same way as PathSolver
+        boolean nextUp = up;
+        int nextRow = row + (up? -1 : 1);
+        if(nextRow == -1) {
+            nextRow = 1;
+            nextUp = false;
+        }
+        else if(nextRow == GameConstants.ROWS) {
+            nextRow = GameConstants.ROWS - 2;
+            nextUp = true;
+        }
+
+        Simulation.Input best = Simulation.Input.STOP;
+        int bestSteps = Integer.MAX_VALUE;
+        int[] moves = {1, 0, -1};
+        for(int move : moves) {
+            int nextCol = col + move;
+            // The same moves as PathSolver allows
+            if(nextCol < -1 || nextCol > GameConstants.COLS || hasTrap(trapMask, nextRow, col) || hasTrap(trapMask, nextRow, nextCol))
+                continue;
+            int steps = solver.getSteps(trapMask, nextRow, nextCol, nextUp, targetRow, targetCol);
+            if(steps == PathSolver.UNSOLVABLE)
+                continue;
+            // The player doesn't change rows and cols at the same moment, so it can clip a trap beside it while moving
+            if(hasTrap(trapMask, row, nextCol))
+                steps += CORNER_PENALTY;
+            if(steps < bestSteps) {
+                bestSteps = steps;
+                best = (move > 0)? Simulation.Input.RIGHT : (move < 0)? Simulation.Input.LEFT : Simulation.Input.STOP;
+            }
+        }
+        return best;
+    }
+
+    // Get the index of the cheese to go for, or -1 to go for the exit.
+    private int getTarget(Simulation simulation) {
+        LevelLayout level = simulation.getLevel();
+        PlayerBody player = simulation.getPlayer();
+        int target = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < level.getNCheeses(); i++) {
+            if(!simulation.hasCheese(i) || (skippedCheeses & (1 << i)) != 0)
+                continue;
+            double distance = Math.abs(level.getCheeseX(i) - player.getX()) + Math.abs(level.getCheeseY(i) - player.getY());
+            if(distance < bestDistance) {
+                bestDistance = distance;
+                target = i;
+            }
+        }
+        return target;
+    }
+
+    // The space the middle of a cheese is in.
+    private static int getCheeseRow(LevelLayout level, int i) {
+        return clamp(Board.convertBaseYToRow(level.getCheeseY(i) + GameConstants.CHEESE_HEIGHT / 2.0), 0, GameConstants.ROWS - 1);
+    }
+
+    private static int getCheeseCol(LevelLayout level, int i) {
+        return clamp(Board.convertBaseXToCol(level.getCheeseX(i) + GameConstants.CHEESE_HEIGHT / 2.0), -1, GameConstants.COLS);
+    }
+
+    private static boolean hasTrap(long trapMask, int row, int col) {
+        return col >= 0 && col < GameConstants.COLS && (trapMask & LevelLayout.getTrapBit(row, col)) != 0;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,47 @@
+package com.alyssalerner.mouseytrap;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Plays back recorded games (see ReplayRecorder) as fast as they run and prints how long each one took.
+ * Each game is played REPEATS times to time it, and checked against how the recorded game ended, so a
+ * folder of recordings works as both a performance and a regression test of the game's rules.
+ * Exits with status 1 if any game doesn't end the same way it was recorded.
+ * Usage: ReplayRunner <replay files>
+ */
+public class ReplayRunner {
+    private static final int REPEATS = 5;
+
+    public static void main(String[] args) throws IOException {
+        boolean allMatch = true;
+        for(String path : args) {
+            ReplayPlayer replay;
+            InputStream in = new BufferedInputStream(new FileInputStream(path));
+            try {
+                replay = ReplayPlayer.read(in);
+            } finally {
+                in.close();
+            }
+
+            Simulation simulation = replay.createSimulation();
+            long bestTime = Long.MAX_VALUE;
+            for(int i = 0; i < REPEATS; i++) {
+                long startTime = System.nanoTime();
+                replay.play(simulation);
+                bestTime = Math.min(bestTime, System.nanoTime() - startTime);
+            }
+
+            boolean matches = replay.matches(simulation);
+            allMatch &= matches;
+            System.out.println(String.format("%s: %d updates, %d inputs, %.2fms (%.0f updates per second), level %d, score %d%s",
+                    path, simulation.getTicks(), replay.getNEvents(), bestTime / 1e6, simulation.getTicks() / (bestTime / 1e9),
+                    simulation.getLevelId(), simulation.getScore(),
+                    matches? "" : " -- recorded as " + replay.getTicks() + " updates, level " + replay.getFinalLevelId()
+                            + ", score " + replay.getFinalScore()));
+        }
+        if(!allMatch)
+            System.exit(1);
+    }
+}
@@ -0,0 +1,50 @@
+package com.alyssalerner.mouseytrap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Time to find a spot for one cheese among the traps of a level (CheesePlacer.placeAtRandomSpot), with the
+ * obstacles built from the trap mask the same way as LevelGenerator.
+ * More traps means more rejected spots, so the cost grows with the level until the free spots are found
+ * exactly instead (see CheesePlacer.MAX_TRIES).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CheesePlacementBenchmark {
+
+    @Param({"1", "50", "200", "350"})
+    int levelId;
+
+    ArrayList<int[]> obstacles;
+    Random rand;
+
+    @Setup
+    public void setup() {
+        rand = new Random(levelId);
+        obstacles = new ArrayList<>();
+        long trapMask = new TrapCreator().createTrapMask(levelId, rand);
+        while(trapMask != 0) {
+            int cell = Long.numberOfTrailingZeros(trapMask);
+            trapMask &= trapMask - 1;
+            int left = (int)Board.getCenteredX(cell % GameConstants.COLS, GameConstants.TRAP_HEIGHT);
+            int top = (int)Board.getCenteredY(cell / GameConstants.COLS, GameConstants.TRAP_HEIGHT);
+            obstacles.add(new int[] {left, top, left + GameConstants.TRAP_HEIGHT, top + GameConstants.TRAP_HEIGHT});
+        }
+    }
+
+    @Benchmark
+    public int[] placeAtRandomSpot() {
+        return CheesePlacer.placeAtRandomSpot(obstacles, GameConstants.CHEESE_HEIGHT, GameConstants.CHEESE_HEIGHT, rand);
+    }
+}
@@ -0,0 +1,70 @@
+package com.alyssalerner.mouseytrap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Time for the tests behind CircularGameObject.collidesWith, between the player and a trap or cheese
+ * at random spots on the board.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CollisionBenchmark {
+    static final int N_PAIRS = 1024;
+
+    // Top left corners of the player and the other object in each pair
+    double[] playerXs = new double[N_PAIRS];
+    double[] playerYs = new double[N_PAIRS];
+    double[] otherXs = new double[N_PAIRS];
+    double[] otherYs = new double[N_PAIRS];
+
+    @Setup
+    public void setup() {
+        // Keep the pairs close enough that about half of their rectangles intersect
+        Random rand = new Random(1);
+        for(int i = 0; i < N_PAIRS; i++) {
+            playerXs[i] = rand.nextInt(GameConstants.BASE_WIDTH);
+            playerYs[i] = rand.nextInt(GameConstants.BASE_HEIGHT);
+            otherXs[i] = playerXs[i] + rand.nextInt(4*GameConstants.PLAYER_HEIGHT) - 2*GameConstants.PLAYER_HEIGHT;
+            otherYs[i] = playerYs[i] + rand.nextInt(4*GameConstants.PLAYER_HEIGHT) - 2*GameConstants.PLAYER_HEIGHT;
+        }
+    }
+
+    // Player against a cheese, as in CircularGameObject.collidesWith(CircularGameObject)
+    @Benchmark
+    @OperationsPerInvocation(N_PAIRS)
+    public int playerWithCheese() {
+        int size = GameConstants.PLAYER_HEIGHT;
+        int otherSize = GameConstants.CHEESE_HEIGHT;
+        int hits = 0;
+        for(int i = 0; i < N_PAIRS; i++) {
+            if(Collision.circleHitsCircle(playerXs[i], playerYs[i], size, size, otherXs[i], otherYs[i], otherSize, otherSize))
+                hits++;
+        }
+        return hits;
+    }
+
+    // Player against a trap, as in CircularGameObject.collidesWith(GameObject)
+    @Benchmark
+    @OperationsPerInvocation(N_PAIRS)
+    public int playerWithTrap() {
+        int size = GameConstants.PLAYER_HEIGHT;
+        int otherSize = GameConstants.TRAP_HEIGHT;
+        int hits = 0;
+        for(int i = 0; i < N_PAIRS; i++) {
+            if(Collision.circleHitsRect(playerXs[i], playerYs[i], playerXs[i] + size, playerYs[i] + size,
+                    otherXs[i], otherYs[i], otherXs[i] + otherSize, otherYs[i] + otherSize))
+                hits++;
+        }
+        return hits;
+    }
+}
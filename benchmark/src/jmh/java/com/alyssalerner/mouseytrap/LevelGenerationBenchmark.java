@@ -0,0 +1,76 @@
+package com.alyssalerner.mouseytrap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Time to generate a level, for a few levels along the difficulty curve and for the whole of levels 1-500.
+ * The trap and cheese images are square, so their widths are the same as their heights.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LevelGenerationBenchmark {
+    static final int LAST_LEVEL = 500;
+
+    @Param({"1", "10", "50", "100", "200", "350", "500"})
+    int levelId;
+
+    LevelGenerator generator;
+    TrapCreator trapCreator;
+    Random rand;
+    PathSolver solver;
+    long trapMask;      // A layout of this level to solve
+
+    @Setup
+    public void setup() {
+        rand = new Random(1);
+        trapCreator = new TrapCreator();
+        generator = new LevelGenerator(1, GameConstants.TRAP_HEIGHT, GameConstants.CHEESE_HEIGHT);
+        solver = new PathSolver();
+        trapMask = generator.generate(levelId).getTrapMask();
+    }
+
+    @Benchmark
+    public long createTraps() {
+        return trapCreator.createTrapMask(levelId, rand);
+    }
+
+    // Verifying and scoring one layout (TrapCreator does this for each candidate layout).
+    @Benchmark
+    public double getDifficulty() {
+        return solver.getDifficulty(trapMask);
+    }
+
+    // The same as LevelLoader.retrieveLevel, without creating the game objects.
+    @Benchmark
+    public LevelLayout retrieveLevel() {
+        return generator.generate(levelId);
+    }
+
+    // Average over every level from 1 to LAST_LEVEL (independent of levelId).
+    @Benchmark
+    @OperationsPerInvocation(LAST_LEVEL)
+    public void createTrapsAllLevels(Blackhole blackhole) {
+        for(int id = 1; id <= LAST_LEVEL; id++)
+            blackhole.consume(trapCreator.createTrapMask(id, rand));
+    }
+
+    // Average over every level from 1 to LAST_LEVEL (independent of levelId).
+    @Benchmark
+    @OperationsPerInvocation(LAST_LEVEL)
+    public void retrieveAllLevels(Blackhole blackhole) {
+        for(int id = 1; id <= LAST_LEVEL; id++)
+            blackhole.consume(generator.generate(id));
+    }
+}
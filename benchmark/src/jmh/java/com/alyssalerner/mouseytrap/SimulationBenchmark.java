@@ -0,0 +1,44 @@
+package com.alyssalerner.mouseytrap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Time for one update of the game's rules without drawing (Simulation.update), with the player holding
+ * right the whole time.  Includes generating each level as the player reaches it, and starting a new game
+ * whenever time runs out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SimulationBenchmark {
+    static final int TICKS = 10000;
+
+    Simulation simulation;
+    Simulation.Controller holdRight = new Simulation.ConstantInput(Simulation.Input.RIGHT);
+
+    @Setup
+    public void setup() {
+        LevelGenerator generator = new LevelGenerator(1, GameConstants.TRAP_HEIGHT, GameConstants.CHEESE_HEIGHT);
+        simulation = new Simulation(generator, GameConstants.PLAYER_HEIGHT, GameConstants.TRAP_HEIGHT, GameConstants.CHEESE_HEIGHT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public long update() {
+        long ticks = 0;
+        while(ticks < TICKS) {
+            ticks += simulation.run(holdRight, TICKS - ticks);
+            if(simulation.isOver())
+                simulation.reset();
+        }
+        return simulation.getScore();
+    }
+}
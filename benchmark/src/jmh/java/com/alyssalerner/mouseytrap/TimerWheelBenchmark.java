@@ -0,0 +1,56 @@
+package com.alyssalerner.mouseytrap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Time to test or dull every pixel of the timer's wheel once, which is what Timer does per draw
+ * without the angle table.
+ * size: The timer's size in pixels (TIMER_HEIGHT is 150 on a BASE_WIDTH wide screen).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimerWheelBenchmark {
+
+    @Param({"75", "150", "300"})
+    int size;
+
+    int timeLeft = GameConstants.TOTAL_TIME / 2;    // Half of the wheel is dull
+
+    int[] pixels;
+
+    @Setup
+    public void setup() {
+        Random rand = new Random(1);
+        pixels = new int[size * size];
+        for(int i = 0; i < pixels.length; i++)
+            pixels[i] = rand.nextInt();
+    }
+
+    @Benchmark
+    public int isDullFullWheel() {
+        int nDull = 0;
+        for(int i = 0; i < pixels.length; i++) {
+            if(TimerWheel.isDull(i % size, i / size, size, timeLeft))
+                nDull++;
+        }
+        return nDull;
+    }
+
+    @Benchmark
+    public int makeDullFullWheel() {
+        int sum = 0;
+        for(int i = 0; i < pixels.length; i++)
+            sum += TimerWheel.makeDull(pixels[i]);
+        return sum;
+    }
+}